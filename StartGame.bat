@@ -7,7 +7,19 @@ chcp 65001 >nul
 set "JAVA_CMD=java"
 where !JAVA_CMD! >nul 2>nul
 if !errorlevel! neq 0 (
-    echo Java not found. Please install Java 8 or higher.
+    echo Java not found. Please install Java 17 or higher.
+    pause
+    exit /b 1
+)
+
+REM The game uses java.util.random.RandomGenerator, which requires Java 17 or higher
+set "JAVA_VERSION="
+set "JAVA_MAJOR="
+for /f "tokens=3" %%v in ('%JAVA_CMD% -version 2^>^&1 ^| findstr /i "version"') do set "JAVA_VERSION=%%~v"
+for /f "delims=." %%m in ("!JAVA_VERSION!") do set "JAVA_MAJOR=%%m"
+if not defined JAVA_MAJOR set "JAVA_MAJOR=0"
+if !JAVA_MAJOR! lss 17 (
+    echo Java !JAVA_VERSION! found, but this game requires Java 17 or higher.
     pause
     exit /b 1
 )
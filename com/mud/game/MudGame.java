@@ -3,8 +3,6 @@ package com.mud.game;
 import com.mud.game.entity.*;
 import com.mud.game.command.*;
 import com.mud.game.system.*;
-import java.util.Scanner;
-import java.util.List;
 import java.util.Map;
 
 public class MudGame {
@@ -13,13 +11,11 @@ public class MudGame {
     private MapManager mapManager;
     private BattleEngine battleEngine;
     private TaskManager taskManager;
-    private Scanner scanner;
     private boolean gameRunning;
     private boolean loadRequested;
     private String loadSaveName;
     
     public MudGame() {
-        this.scanner = new Scanner(System.in);
         this.commandParser = new CommandParser();
         // 暂时使用默认难度创建地图管理器，后面会更新为玩家选择的难度
         this.mapManager = new MapManager();
@@ -44,21 +40,29 @@ public class MudGame {
         // 显示欢迎信息
         showWelcomeMessage();
         
-        // 开始游戏循环
-        gameLoop();
+        // 开始游戏循环；游戏结束、玩家退出或连接断开时删除世界实例的临时文件
+        try {
+            gameLoop();
+        } finally {
+            mapManager.close();
+        }
     }
     
     private void createPlayer() {
         System.out.print("请输入你的角色名称：");
-        String playerName = scanner.nextLine().trim();
+        String playerName = GameConsole.readLine().trim();
         
+        // 选择游戏难度
+        GameDifficulty difficulty = selectDifficulty();
+        
+        createPlayer(playerName, difficulty);
+    }
+    
+    private void createPlayer(String playerName, GameDifficulty difficulty) {
         if (playerName.isEmpty()) {
             playerName = "冒险者";
         }
         
-        // 选择游戏难度
-        GameDifficulty difficulty = selectDifficulty();
-        
         // 根据难度创建玩家
         this.player = new Player(playerName, 100, 10, 5, 1, 0, 100, difficulty);
         
@@ -93,7 +97,7 @@ public class MudGame {
         // 让玩家选择难度
         while (true) {
             System.out.print("请选择难度 (输入选项编号): ");
-            String input = scanner.nextLine().trim();
+            String input = GameConsole.readLine().trim();
             
             if (difficultyOptions.containsKey(input)) {
                 return difficultyOptions.get(input);
@@ -106,6 +110,7 @@ public class MudGame {
     private void initializeGame() {
 
         // 使用玩家选择的难度重新创建地图管理器
+        mapManager.close();
         this.mapManager = new MapManager(player.getDifficulty());
         
         // 设置玩家起始位置
@@ -120,24 +125,10 @@ public class MudGame {
         
         System.out.println("你获得了初始装备：新手剑、新手护甲、治疗药水");
         
-        // 将任务管理器中的任务添加到玩家的任务列表
-        List<Task> allAvailableTasks = taskManager.getAllTasks();
-        for (Task task : allAvailableTasks) {
-            // 创建任务的副本，避免多个玩家共享同一个任务实例
-            Task taskCopy = new Task(
-                task.getName(),
-                task.getDescription(),
-                task.getObjective(),
-                task.getReward(),
-                task.isMainTask()
-            );
-            player.getTasks().add(taskCopy);
-        }
-        
-        // 为玩家设置任务管理器引用
-        player.setTaskManager(taskManager);
+        // 任务定义由所有玩家共享，这里只为玩家关联任务管理器
+        int taskCount = taskManager.assignAllTasks(player);
         
-        System.out.println("任务系统已初始化，" + allAvailableTasks.size() + "个任务可用！");
+        System.out.println("任务系统已初始化，" + taskCount + "个任务可用！");
         System.out.println();
     }
     
@@ -160,38 +151,45 @@ public class MudGame {
         
         while (gameRunning) {
             System.out.print("> ");
-            String input = scanner.nextLine().trim();
-            
-            if (input.isEmpty()) {
-                continue;
-            }
-            
-            // 解析并执行命令
-            commandParser.parseAndExecute(input, player);
-            
-            // 检查是否需要加载存档
-            if (player.isLoadRequested()) {
-                String saveName = player.getLoadSaveName();
-                player.setLoadRequested(false);
-                player.setLoadSaveName(null);
-                
-                if (loadGame(saveName)) {
-                    System.out.println("存档加载成功！继续游戏...");
-                    continue;
-                } else {
-                    System.out.println("存档加载失败，继续当前游戏...");
-                }
-            }
-            
-            // 检查游戏状态
-            checkGameState();
+            String input = GameConsole.readLine().trim();
             
-            System.out.println();
+            processInput(input);
         }
         
         // 游戏结束
         System.out.println("感谢游玩！再见！");
-        scanner.close();
+    }
+    
+    /**
+     * 处理一行玩家输入：执行命令、处理存档加载请求并检查游戏状态
+     * @param input 玩家输入
+     */
+    private void processInput(String input) {
+        if (input == null || input.trim().isEmpty()) {
+            return;
+        }
+        
+        // 解析并执行命令
+        commandParser.parseAndExecute(input.trim(), player);
+        
+        // 检查是否需要加载存档
+        if (player.isLoadRequested()) {
+            String saveName = player.getLoadSaveName();
+            player.setLoadRequested(false);
+            player.setLoadSaveName(null);
+            
+            if (loadGame(saveName)) {
+                System.out.println("存档加载成功！继续游戏...");
+                return;
+            } else {
+                System.out.println("存档加载失败，继续当前游戏...");
+            }
+        }
+        
+        // 检查游戏状态
+        checkGameState();
+        
+        System.out.println();
     }
     
     private void checkGameState() {
@@ -206,15 +204,7 @@ public class MudGame {
         }
         
         // 检查是否完成所有主线任务
-        boolean allMainTasksCompleted = true;
-        for (Task task : player.getTasks()) {
-            if (task.isMainTask() && task.getStatus() != TaskStatus.COMPLETED) {
-                allMainTasksCompleted = false;
-                break;
-            }
-        }
-        
-        if (allMainTasksCompleted) {
+        if (taskManager.isMainStoryCompleted(player)) {
             System.out.println("\n=== 恭喜！ ===");
             System.out.println("你已经完成了所有主线任务！");
             System.out.println("最终等级：" + player.getLevel());
@@ -235,7 +225,8 @@ public class MudGame {
     }
     
     private boolean loadGame(String saveName) {
-        DataManager dataManager = new DataManager();
+        // 从当前玩家可以使用的存档目录加载
+        DataManager dataManager = DataManager.forPlayer(player);
         
         System.out.println("正在加载存档: " + saveName);
         
@@ -249,16 +240,19 @@ public class MudGame {
         // 更新当前玩家对象
         this.player = loadedPlayer;
         
-        // 重新初始化相关管理器
+        // 重新初始化相关管理器，关闭原来的世界实例
+        mapManager.close();
         this.mapManager = new MapManager(player.getDifficulty());
         this.battleEngine = new BattleEngine();
         this.taskManager = new TaskManager();
         
-        // 设置玩家当前房间
+        // 设置玩家当前房间（存档只记录房间名称）
         Room currentRoom = mapManager.getRoomByName(player.getCurrentRoomName());
-        if (currentRoom != null) {
-            player.setCurrentRoom(currentRoom);
+        if (currentRoom == null) {
+            currentRoom = mapManager.getStartRoom();
         }
+        player.setCurrentRoom(currentRoom);
+        taskManager.assignAllTasks(player);
         
         System.out.println("存档加载成功！");
         System.out.println("欢迎回来，" + player.getName() + "！");
@@ -274,6 +268,8 @@ public class MudGame {
 
     public static void main(String[] args) {
         MudGame game = new MudGame();
+        // 控制台模式下退出游戏会直接结束进程，不经过 start 中的清理
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> game.mapManager.close()));
         game.start();
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.mud.game.command;
 
 import com.mud.game.entity.Player;
 import com.mud.game.system.EquipmentManager;
+import com.mud.game.system.GameConsole;
 import java.util.*;
 
 public class CommandParser {
@@ -16,6 +17,7 @@ public class CommandParser {
     
     private void initializeCommands() {
         commands.put("go", new GoCommand());
+        commands.put("travel", new TravelCommand());
         commands.put("take", new TakeCommand());
         commands.put("use", new UseCommand());
         commands.put("attack", new AttackCommand());
@@ -47,6 +49,9 @@ public class CommandParser {
         if (command != null) {
             try {
                 command.execute(player, parts);
+            } catch (GameConsole.SessionClosedException e) {
+                // 会话结束信号需要交给会话驱动处理
+                throw e;
             } catch (Exception e) {
                 System.out.println("执行命令时出错：" + e.getMessage());
             }
@@ -7,6 +7,7 @@ public class HelpCommand implements Command {
     public void execute(Player player, String[] args) {
         System.out.println("\n=== 可用命令 ===");
         System.out.println("go <方向>    - 向指定方向移动");
+        System.out.println("travel <房间> - 自动前往指定地点");
         System.out.println("take <物品>  - 拾取房间中的物品");
         System.out.println("use <物品>   - 使用背包中的物品");
         System.out.println("unequip <装备> - 卸下已装备的物品");
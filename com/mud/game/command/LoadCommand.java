@@ -2,16 +2,14 @@ package com.mud.game.command;
 
 import com.mud.game.entity.Player;
 import com.mud.game.system.DataManager;
+import com.mud.game.system.GameConsole;
 
 public class LoadCommand implements Command {
-    private DataManager dataManager;
-    
-    public LoadCommand() {
-        this.dataManager = new DataManager();
-    }
     
     @Override
     public void execute(Player player, String[] args) {
+        // 服务器模式下只能看到和加载自己的存档
+        DataManager dataManager = DataManager.forPlayer(player);
         if (args.length < 2) {
             System.out.println("请输入存档名称！");
             System.out.println("可用存档：");
@@ -29,6 +27,10 @@ public class LoadCommand implements Command {
         }
         
         String saveName = args[1];
+        if (!DataManager.isValidSaveName(saveName)) {
+            System.out.println(DataManager.getSaveNameRule());
+            return;
+        }
         
         // 显示存档信息
         System.out.println("正在加载存档...");
@@ -36,8 +38,7 @@ public class LoadCommand implements Command {
         System.out.println();
         
         System.out.print("确认加载此存档？(y/n): ");
-        java.util.Scanner scanner = new java.util.Scanner(System.in);
-        String confirm = scanner.nextLine().trim().toLowerCase();
+        String confirm = GameConsole.readLine().trim().toLowerCase();
         
         if (!confirm.equals("y") && !confirm.equals("yes")) {
             System.out.println("加载已取消。");
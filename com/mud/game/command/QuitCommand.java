@@ -1,12 +1,13 @@
 package com.mud.game.command;
 
 import com.mud.game.entity.Player;
+import com.mud.game.system.GameConsole;
 
 public class QuitCommand implements Command {
     @Override
     public void execute(Player player, String[] args) {
         System.out.println("感谢游玩！再见！");
-        System.exit(0);
+        GameConsole.exit(0);
     }
     
     @Override
@@ -1,13 +1,14 @@
 package com.mud.game.command;
 
 import com.mud.game.entity.Player;
+import com.mud.game.system.AutosaveService;
 import com.mud.game.system.DataManager;
 
 public class SaveCommand implements Command {
-    private DataManager dataManager;
+    private AutosaveService autosaveService;
     
     public SaveCommand() {
-        this.dataManager = new DataManager();
+        this.autosaveService = AutosaveService.getInstance();
     }
     
     @Override
@@ -19,10 +20,16 @@ public class SaveCommand implements Command {
         }
         
         String saveName = args[1];
-        boolean success = dataManager.saveGame(player, saveName);
+        if (!DataManager.isValidSaveName(saveName)) {
+            System.out.println(DataManager.getSaveNameRule());
+            return;
+        }
+        // 存档由后台线程写入磁盘，不阻塞命令处理；服务器模式下写入该玩家自己的存档目录
+        boolean success = autosaveService.submit(DataManager.forPlayer(player), player, saveName);
         
         if (success) {
-            System.out.println("游戏已保存为: " + saveName);
+            // 此时只是生成了快照，写入磁盘在后台完成（写入失败记录在服务器日志中）
+            System.out.println("存档已提交，正在后台保存为: " + saveName);
         } else {
             System.out.println("保存游戏失败！");
         }
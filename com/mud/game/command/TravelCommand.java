@@ -0,0 +1,73 @@
+package com.mud.game.command;
+
+import com.mud.game.entity.*;
+import java.util.List;
+
+/**
+ * 自动前往指定房间
+ * 按最短路径一次走完全程，途经每个房间都和 go 命令一样触发进入房间和探索任务事件；
+ * 途中进入有敌对NPC的房间时停下，由玩家决定是否战斗。
+ */
+public class TravelCommand implements Command {
+    @Override
+    public void execute(Player player, String[] args) {
+        if (args.length < 2) {
+            System.out.println("请指定目的地。例如：travel 铁匠铺");
+            return;
+        }
+
+        Room currentRoom = player.getCurrentRoom();
+        if (currentRoom == null || currentRoom.getWorld() == null) {
+            System.out.println("你现在不在任何房间中。");
+            return;
+        }
+
+        WorldView world = currentRoom.getWorld();
+        String targetName = args[1];
+        Room target = world.getRoom(targetName);
+        if (target == null) {
+            System.out.println("没有叫做 " + targetName + " 的地方。");
+            return;
+        }
+        if (target == currentRoom) {
+            System.out.println("你已经在" + targetName + "了。");
+            return;
+        }
+
+        List<Direction> path = world.findPath(currentRoom.getId(), target.getId());
+        if (path == null) {
+            System.out.println("从这里无法到达" + targetName + "。");
+            return;
+        }
+
+        System.out.println("前往" + targetName + "，共" + path.size() + "步。");
+        int steps = 0;
+        for (Direction direction : path) {
+            Room before = player.getCurrentRoom();
+            player.move(direction);
+            Room after = player.getCurrentRoom();
+            if (after == before) {
+                System.out.println("道路不通，停止前进。");
+                return;
+            }
+            steps++;
+
+            NPC npc = after.getNpc();
+            if (after != target && npc != null && npc.isAlive() && npc.isHostile()) {
+                System.out.println("前方有" + npc.getName() + "拦路，你停下了脚步。（已走" + steps + "步）");
+                return;
+            }
+        }
+        System.out.println("已到达" + targetName + "。");
+    }
+
+    @Override
+    public String getDescription() {
+        return "自动前往指定地点";
+    }
+
+    @Override
+    public String getUsage() {
+        return "travel <房间名>";
+    }
+}
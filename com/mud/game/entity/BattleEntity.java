@@ -26,8 +26,19 @@ public interface BattleEntity {
     void setCritDamage(double critDamage);
     String getElement();
     void setElement(String element);
+    /**
+     * 元素属性（伤害计算使用，避免比较属性字符串）
+     */
+    Element getElementType();
     
     // 状态效果
+    /**
+     * 状态效果表（战斗结算直接读写）
+     */
+    StatusEffectTable getEffectTable();
+    /**
+     * 当前状态效果的快照，修改快照不影响实体
+     */
     List<StatusEffect> getStatusEffects();
     void addStatusEffect(StatusEffect effect);
     void removeStatusEffect(StatusEffect effect);
@@ -0,0 +1,113 @@
+package com.mud.game.entity;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 元素属性
+ * 克制倍率在类加载时从 elements.txt 读入按序号索引的矩阵，
+ * 伤害计算只做一次数组查找，不再比较属性字符串。
+ */
+public enum Element {
+    NONE("无"),
+    FIRE("火"),
+    WATER("水"),
+    WIND("风"),
+    THUNDER("雷"),
+    EARTH("土"),
+    LIGHT("光"),
+    DARK("暗");
+
+    private static final String CHART_RESOURCE = "elements.txt";
+    private static final Element[] VALUES = values();
+    private static final Map<String, Element> BY_NAME = new HashMap<>();
+    private static final double[][] MULTIPLIERS = new double[VALUES.length][VALUES.length];
+
+    static {
+        for (Element element : VALUES) {
+            BY_NAME.put(element.displayName, element);
+            BY_NAME.put(element.name(), element);
+        }
+        for (double[] row : MULTIPLIERS) {
+            Arrays.fill(row, 1.0);
+        }
+        loadChart();
+    }
+
+    private final String displayName;
+
+    Element(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * 显示名称（也是存档中保存的属性字符串）
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 攻击方对防御方的克制倍率
+     */
+    public double multiplierAgainst(Element defender) {
+        return MULTIPLIERS[ordinal()][defender.ordinal()];
+    }
+
+    /**
+     * 从属性字符串转换（兼容旧存档中的中文属性名，也接受枚举名称）
+     * @return 对应的元素，无法识别时返回 NONE
+     */
+    public static Element fromName(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        Element element = BY_NAME.get(name);
+        if (element == null) {
+            element = BY_NAME.get(name.trim().toUpperCase());
+        }
+        return element != null ? element : NONE;
+    }
+
+    /**
+     * 读取克制表，每行格式为"攻击方 防御方 倍率"，#开头为注释，未列出的组合倍率为1.0
+     */
+    private static void loadChart() {
+        InputStream in = Element.class.getResourceAsStream(CHART_RESOURCE);
+        if (in == null) {
+            System.err.println("找不到属性克制表 " + CHART_RESOURCE + "，所有属性倍率按1.0计算");
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                Element attacker = BY_NAME.get(parts[0]);
+                Element defender = parts.length > 1 ? BY_NAME.get(parts[1]) : null;
+                if (parts.length != 3 || attacker == null || defender == null) {
+                    System.err.println("属性克制表第" + lineNumber + "行格式错误: " + line);
+                    continue;
+                }
+                try {
+                    MULTIPLIERS[attacker.ordinal()][defender.ordinal()] = Double.parseDouble(parts[2]);
+                } catch (NumberFormatException e) {
+                    System.err.println("属性克制表第" + lineNumber + "行倍率无效: " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("读取属性克制表失败: " + e.getMessage());
+        }
+    }
+}
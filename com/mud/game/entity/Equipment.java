@@ -1,7 +1,8 @@
 package com.mud.game.entity;
 
 import java.io.Serializable;
-import java.util.concurrent.ThreadLocalRandom;
+import com.mud.game.system.RandomStream;
+import com.mud.game.system.RandomStreams;
 
 /**
  * 可强化装备类
@@ -55,7 +56,10 @@ public class Equipment extends Item implements Serializable {
         
         // 计算成功率
         double successRate = calculateSuccessRate();
-        boolean success = java.util.concurrent.ThreadLocalRandom.current().nextDouble() < successRate;
+        RandomStream stream = RandomStreams.open("upgrade");
+        boolean success = stream.nextDouble() < successRate;
+        stream.log(getName() + " Lv." + level + " 成功率:" + String.format("%.3f", successRate)
+                + (success ? " 成功" : " 失败"));
         
         if (success) {
             // 强化成功
@@ -95,6 +99,20 @@ public class Equipment extends Item implements Serializable {
                          getName(), durability, maxDurability));
     }
     
+    /**
+     * 复制一件相同的新装备（包括强化等级和耐久度）
+     */
+    @Override
+    public Equipment copy() {
+        Equipment copy = new Equipment(getName(), getDescription(), baseEffect, getType(), grade, maxLevel);
+        copy.level = level;
+        copy.durability = durability;
+        copy.maxDurability = maxDurability;
+        copy.isEquipped = false;
+        copy.updateStats();
+        return copy;
+    }
+    
     /**
      * 更新属性
      */
@@ -1,6 +1,7 @@
 package com.mud.game.entity;
 
-import com.mud.game.system.RandomUtil;
+import com.mud.game.system.RandomStream;
+import com.mud.game.system.RandomStreams;
 
 /**
  * 装备品质枚举
@@ -66,7 +67,13 @@ public enum EquipmentGrade {
      * 获取随机品质（按概率分布）
      */
     public static EquipmentGrade getRandomGrade() {
-        double random = RandomUtil.nextDouble();
+        RandomStream stream = RandomStreams.open("loot");
+        EquipmentGrade grade = gradeForRoll(stream.nextDouble());
+        stream.log("品质:" + grade.name());
+        return grade;
+    }
+    
+    private static EquipmentGrade gradeForRoll(double random) {
         if (random < 0.5) return COMMON;      // 50%
         if (random < 0.75) return UNCOMMON;   // 25%
         if (random < 0.9) return RARE;        // 15%
@@ -40,6 +40,13 @@ public class Item implements Serializable {
         }
     }
     
+    /**
+     * 复制一个相同的新物品
+     */
+    public Item copy() {
+        return new Item(name, description, effect, type);
+    }
+    
     public String getName() {
         return name;
     }
@@ -2,10 +2,14 @@ package com.mud.game.entity;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
 import com.mud.game.system.RandomUtil;
+import com.mud.game.system.GameConsole;
 
 public class NPC implements Serializable, BattleEntity {
     private static final long serialVersionUID = 1L;
@@ -17,6 +21,7 @@ public class NPC implements Serializable, BattleEntity {
     private int def;
     private int level;
     private String element; // 属性：火、水、土、风、雷、光、暗
+    private transient Element elementType; // 由 element 转换得到的元素
     private double dodgeRate; // 闪避率(0-1)
     private double critRate; // 暴击率(0-1)
     private double critDamage; // 暴击伤害倍数
@@ -36,7 +41,7 @@ public class NPC implements Serializable, BattleEntity {
     // BattleEntity接口字段
     private int tempAtk; // 临时攻击力
     private int tempDef; // 临时防御力
-    private List<StatusEffect> statusEffects; // 状态效果列表
+    private StatusEffectTable effectTable; // 状态效果表
     private int expReward; // 经验奖励
     private int goldReward; // 金币奖励
     
@@ -86,7 +91,7 @@ public class NPC implements Serializable, BattleEntity {
         // 初始化BattleEntity字段
         this.tempAtk = 0;
         this.tempDef = 0;
-        this.statusEffects = new ArrayList<>();
+        this.effectTable = new StatusEffectTable();
         
         // 根据难度调整奖励
         int baseExpReward = isHostile ? 15 : 5;
@@ -138,7 +143,7 @@ public class NPC implements Serializable, BattleEntity {
         // 初始化BattleEntity字段
         this.tempAtk = 0;
         this.tempDef = 0;
-        this.statusEffects = new ArrayList<>();
+        this.effectTable = new StatusEffectTable();
         
         // 根据难度调整奖励
         this.expReward = (int)(10 * difficulty.getRewardFactor()); // 默认经验奖励
@@ -209,19 +214,26 @@ public class NPC implements Serializable, BattleEntity {
     }
     
     public void attack(Player player) {
+        attack(player, RandomUtil.generator());
+    }
+    
+    /**
+     * 攻击玩家，闪避和暴击使用指定的随机数流（战斗引擎传入本场战斗的流，以便复现）
+     */
+    public void attack(Player player, RandomGenerator random) {
         if (!isAlive) {
             System.out.println(name + "已经死亡，无法攻击。");
             return;
         }
         
         // 闪避判定
-        if (RandomUtil.nextDouble() < player.getDodgeRate()) {
+        if (random.nextDouble() < player.getDodgeRate()) {
             System.out.println("💨 " + player.getName() + "灵巧地闪避了" + name + "的攻击！");
             return;
         }
         
         // 暴击判定
-        boolean isCrit = RandomUtil.nextDouble() < this.critRate;
+        boolean isCrit = random.nextDouble() < this.critRate;
         double damageMultiplier = isCrit ? this.critDamage : 1.0;
         
         // 基础伤害计算
@@ -229,7 +241,7 @@ public class NPC implements Serializable, BattleEntity {
         int damage = (int)(baseDamage * damageMultiplier);
         
         // 属性克制计算
-        double elementModifier = calculateElementAdvantage(this.element, player.getElement());
+        double elementModifier = getElementType().multiplierAgainst(player.getElementType());
         damage = (int)(damage * elementModifier);
         
         player.setHp(player.getHp() - damage);
@@ -249,7 +261,7 @@ public class NPC implements Serializable, BattleEntity {
         
         if (player.getHp() <= 0) {
             System.out.println("你被" + name + "击败了！游戏结束！");
-            System.exit(0);
+            GameConsole.exit(0);
         }
     }
     
@@ -427,6 +439,15 @@ public class NPC implements Serializable, BattleEntity {
     
     public void setElement(String element) {
         this.element = element;
+        this.elementType = Element.fromName(element);
+    }
+    
+    @Override
+    public Element getElementType() {
+        if (elementType == null) {
+            elementType = Element.fromName(element);
+        }
+        return elementType;
     }
     
     public double getDodgeRate() {
@@ -482,29 +503,37 @@ public class NPC implements Serializable, BattleEntity {
         this.tempDef = tempDef;
     }
     
+    @Override
+    public StatusEffectTable getEffectTable() {
+        if (effectTable == null) {
+            effectTable = new StatusEffectTable();
+        }
+        return effectTable;
+    }
+    
     @Override
     public List<StatusEffect> getStatusEffects() {
-        return statusEffects;
+        return getEffectTable().toList();
     }
     
     @Override
     public void addStatusEffect(StatusEffect effect) {
-        statusEffects.add(effect);
+        getEffectTable().add(effect);
     }
     
     @Override
     public void removeStatusEffect(StatusEffect effect) {
-        statusEffects.remove(effect);
+        getEffectTable().remove(effect.getStatus());
     }
     
     @Override
     public void clearStatusEffects() {
-        statusEffects.clear();
+        getEffectTable().clear();
     }
     
     @Override
     public boolean hasStatus(BattleStatus status) {
-        return statusEffects.stream().anyMatch(effect -> effect.getStatus() == status);
+        return getEffectTable().has(status);
     }
     
     // 经验奖励和金币奖励的getter和setter
@@ -544,39 +573,30 @@ public class NPC implements Serializable, BattleEntity {
         return difficulty;
     }
     
-    public void setDifficulty(GameDifficulty difficulty) {
-        this.difficulty = difficulty;
+    /**
+     * 两个NPC的属性、状态和关系值是否完全相同（用于判断NPC是否与按模板新建时一样）
+     */
+    public boolean hasSameState(NPC other) {
+        return name.equals(other.name)
+                && hp == other.hp && maxHp == other.maxHp
+                && atk == other.atk && def == other.def && level == other.level
+                && Objects.equals(element, other.element)
+                && dodgeRate == other.dodgeRate && critRate == other.critRate
+                && critDamage == other.critDamage && resistance == other.resistance
+                && Arrays.equals(dialogue, other.dialogue)
+                && isHostile == other.isHostile && isAlive == other.isAlive
+                && difficulty == other.difficulty
+                && Objects.equals(availableTasks, other.availableTasks)
+                && Objects.equals(taskDialogues, other.taskDialogues)
+                && Objects.equals(profession, other.profession)
+                && Objects.equals(personality, other.personality)
+                && relationship == other.relationship
+                && tempAtk == other.tempAtk && tempDef == other.tempDef
+                && getEffectTable().getMask() == other.getEffectTable().getMask()
+                && expReward == other.expReward && goldReward == other.goldReward;
     }
     
-    // 属性克制计算
-    private double calculateElementAdvantage(String attackerElement, String defenderElement) {
-        if (attackerElement.equals("无") || defenderElement.equals("无")) {
-            return 1.0;
-        }
-        
-        // 克制关系：火克风，风克雷，雷克水，水克火，土克雷，光暗互克
-        switch (attackerElement) {
-            case "火":
-                return defenderElement.equals("风") ? 1.5 : 
-                       defenderElement.equals("水") ? 0.7 : 1.0;
-            case "水":
-                return defenderElement.equals("火") ? 1.5 : 
-                       defenderElement.equals("雷") ? 0.7 : 1.0;
-            case "风":
-                return defenderElement.equals("雷") ? 1.5 : 
-                       defenderElement.equals("火") ? 0.7 : 1.0;
-            case "雷":
-                return defenderElement.equals("水") ? 1.5 : 
-                       defenderElement.equals("风") ? 0.7 : 
-                       defenderElement.equals("土") ? 0.5 : 1.0;
-            case "土":
-                return defenderElement.equals("雷") ? 1.5 : 1.0;
-            case "光":
-                return defenderElement.equals("暗") ? 2.0 : 1.0;
-            case "暗":
-                return defenderElement.equals("光") ? 2.0 : 1.0;
-            default:
-                return 1.0;
-        }
+    public void setDifficulty(GameDifficulty difficulty) {
+        this.difficulty = difficulty;
     }
 }
\ No newline at end of file
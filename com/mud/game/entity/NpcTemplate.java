@@ -0,0 +1,54 @@
+package com.mud.game.entity;
+
+import java.util.*;
+
+/**
+ * NPC模板（不可变）
+ * 保存世界文件中定义的NPC原始属性，同一个模板被所有世界实例共享，
+ * 每个世界在玩家第一次遇到NPC时才按自己的难度创建NPC实例。
+ */
+public final class NpcTemplate {
+    private final String name;
+    private final int hp;
+    private final int atk;
+    private final boolean hostile;
+    private final String profession;
+    private final String personality;
+    private final String[] dialogue;
+    private final Map<String, String> taskDialogues;
+
+    /**
+     * @param taskDialogues 提供的任务ID及对应的任务对话（按提供顺序）
+     */
+    public NpcTemplate(String name, int hp, int atk, boolean hostile, String profession, String personality,
+                       String[] dialogue, Map<String, String> taskDialogues) {
+        this.name = name;
+        this.hp = hp;
+        this.atk = atk;
+        this.hostile = hostile;
+        this.profession = profession;
+        this.personality = personality;
+        this.dialogue = dialogue.clone();
+        this.taskDialogues = Collections.unmodifiableMap(new LinkedHashMap<>(taskDialogues));
+    }
+
+    /**
+     * 按难度创建一个新的NPC实例（对话等文本与模板共享）
+     */
+    public NPC create(GameDifficulty difficulty) {
+        NPC npc = new NPC(name, hp, atk, dialogue, hostile, profession, personality, difficulty);
+        for (Map.Entry<String, String> task : taskDialogues.entrySet()) {
+            npc.addTask(task.getKey());
+            npc.addTaskDialogue(task.getKey(), task.getValue());
+        }
+        return npc;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isHostile() {
+        return hostile;
+    }
+}
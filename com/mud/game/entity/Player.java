@@ -4,8 +4,12 @@ import java.io.Serializable;
 import java.util.*;
 import com.mud.game.system.EnhancedBattleEngine;
 import com.mud.game.system.TaskManager;
+import com.mud.game.system.GameEvent;
+import com.mud.game.system.GameEventBus;
 import com.mud.game.system.RandomUtil;
+import com.mud.game.system.GameConsole;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class Player implements Serializable, BattleEntity {
     private static final long serialVersionUID = 1L;
@@ -22,17 +26,20 @@ public class Player implements Serializable, BattleEntity {
     private String currentRoomName;
     private List<Item> backpack;
     private Room currentRoom;
-    private List<Task> tasks;
+    private TaskLog taskLog;
+    // 到访过的房间编号（每个玩家各自记录，房间对象本身不保存到访状态）
+    private VisitedRooms visitedRooms;
     private GameDifficulty difficulty; // 游戏难度
     
     // 战斗相关属性
     private String element;
+    private transient Element elementType; // 由 element 转换得到的元素
     private double dodgeRate;
     private double critRate;
     private double critDamage;
     private int tempAtk;
     private int tempDef;
-    private List<StatusEffect> statusEffects;
+    private StatusEffectTable effectTable;
     private boolean isAlive;
     
     // 用于保存NPC血量状态的映射
@@ -41,7 +48,7 @@ public class Player implements Serializable, BattleEntity {
     // 用于游戏内加载存档的临时属性（不序列化）
     private transient boolean loadRequested;
     private transient String loadSaveName;
-    private transient TaskManager taskManager;
+    private transient GameEventBus eventBus;
     
     public Player(String name, int hp, int atk, int def, int level, int experience, int money, GameDifficulty difficulty) {
         this.name = name;
@@ -60,10 +67,11 @@ public class Player implements Serializable, BattleEntity {
         this.backpack = new ArrayList<>();
         this.currentRoom = null;
         this.currentRoomName = "";
-        this.tasks = new ArrayList<>();
+        this.taskLog = new TaskLog(TaskManager.getTaskCount());
+        this.visitedRooms = new VisitedRooms();
         this.loadRequested = false;
         this.loadSaveName = null;
-        this.taskManager = null;
+        this.eventBus = null;
         
         // 初始化战斗属性
         this.element = "无";
@@ -72,13 +80,24 @@ public class Player implements Serializable, BattleEntity {
         this.critDamage = 1.5; // 1.5倍暴击伤害
         this.tempAtk = 0;
         this.tempDef = 0;
-        this.statusEffects = new ArrayList<>();
+        this.effectTable = new StatusEffectTable();
         this.isAlive = true;
         this.npcHealthMap = new HashMap<>();
     }
     
-    public void setTaskManager(TaskManager taskManager) {
-        this.taskManager = taskManager;
+    public void setEventBus(GameEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+    
+    /**
+     * 发布玩家行为事件（任务进度、任务触发等由订阅者处理）
+     * @param type 事件类型
+     * @param target 目标名称
+     */
+    public void publishEvent(GameEvent.Type type, String target) {
+        if (eventBus != null) {
+            eventBus.publish(new GameEvent(type, this, target));
+        }
     }
     
     // 简化构造函数，用于测试，默认普通难度
@@ -87,15 +106,13 @@ public class Player implements Serializable, BattleEntity {
     }
     
     public boolean takeItem(String itemName) {
-        Item item = currentRoom.findItem(itemName);
+        Item item = currentRoom.takeItem(itemName);
         if (item != null) {
-            if (currentRoom.removeItem(item)) {
-                backpack.add(item);
-                System.out.println("拾取了" + item.getName() + "。");
-                // 自动更新收集类任务进度
-                updateTaskProgress("collect", item.getName(), 1);
-                return true;
-            }
+            backpack.add(item);
+            System.out.println("拾取了" + item.getName() + "。");
+            // 自动更新收集类任务进度
+            publishEvent(GameEvent.Type.COLLECT, item.getName());
+            return true;
         }
         System.out.println("这里没有" + itemName + "。");
         return false;
@@ -236,21 +253,17 @@ public class Player implements Serializable, BattleEntity {
             System.out.println("那个方向没有房间。");
         } else {
             this.currentRoom = newRoom;
-            System.out.println("你移动到了 " + newRoom.getName() + "。");
-            System.out.println(newRoom.getDescription());
+            this.currentRoomName = newRoom.getName();
+            markVisited(newRoom);
+            System.out.println(newRoom.getArrivalText());
             
             // 显示房间中的NPC
             if (newRoom.getNpc() != null) {
                 System.out.println("你看到了 " + newRoom.getNpc().getName() + "。");
             }
             
-            // 更新任务进度（探索）
-            updateTaskProgress("explore", currentRoom.getName(), 1);
-            
-            // 触发可能的任务
-            if (taskManager != null) {
-                taskManager.checkTaskTriggers(this, "enter", this.currentRoom.getName());
-            }
+            // 更新任务进度（探索）并触发可能的任务
+            publishEvent(GameEvent.Type.ENTER, newRoom.getName());
         }
     }
     
@@ -267,17 +280,24 @@ public class Player implements Serializable, BattleEntity {
     
     // 单次攻击方法，用于回合制战斗系统
     public int performAttack(NPC npc) {
+        return performAttack(npc, RandomUtil.generator());
+    }
+    
+    /**
+     * 单次攻击，伤害和暴击使用指定的随机数流（战斗引擎传入本场战斗的流，以便复现）
+     */
+    public int performAttack(NPC npc, RandomGenerator random) {
         if (!npc.isAlive()) {
             return 0;
         }
         
         // 计算伤害，包含随机性和暴击机制
         int baseDamage = Math.max(1, this.atk - 5);
-        int randomFactor = RandomUtil.nextInt(1, 11); // 1-10的随机因子
+        int randomFactor = random.nextInt(1, 11); // 1-10的随机因子
         int damage = baseDamage + randomFactor;
         
         // 暴击判定（10%概率）
-        if (RandomUtil.isTriggered(0.1)) {
+        if (random.nextDouble() < 0.1) {
             damage = (int)(damage * 1.5); // 1.5倍暴击伤害
             System.out.println("暴击！");
         }
@@ -294,32 +314,14 @@ public class Player implements Serializable, BattleEntity {
         if (npc != null && npc.isAlive()) {
             npc.talk(this);
             if (!npc.isHostile()) {
-                updateTaskProgress("talk", npc.getName(), 1);
-
-                // 检查NPC是否有可用任务
-                // if (!npc.getAvailableTasks().isEmpty()) {
-                //     System.out.println("\n【任务提示】");
-                //     System.out.println(npc.getName() + "似乎有任务要交给你...");
-                //     System.out.println("输入 'task' 查看可用任务");
-                // }
-                if (taskManager != null) {
-                    taskManager.checkTaskTriggers(this, "talk", npc.getName());
-                }
+                // 更新对话类任务进度，并检查NPC是否有可用任务
+                publishEvent(GameEvent.Type.TALK, npc.getName());
             }
         } else {
             System.out.println("这里没有可以对话的人。");
         }
     }
     
-    public void updateTaskProgress(String targetType, String targetName, int amount) {
-        for (Task task : tasks) {
-            if (task.getStatus() == TaskStatus.IN_PROGRESS) {
-                task.updateProgress(targetType, targetName, amount);
-                task.checkComplete(this);
-            }
-        }
-    }
-    
     public void showStatus() {
         System.out.println("\n=== 角色状态 ===");
         System.out.println("姓名：" + name);
@@ -335,6 +337,12 @@ public class Player implements Serializable, BattleEntity {
         System.out.println("\n=== 当前位置 ===");
         if (currentRoom != null) {
             System.out.println("位置名称：" + currentRoom.getName());
+            WorldView world = currentRoom.getWorld();
+            if (world != null) {
+                int visited = getVisitedRooms().size();
+                System.out.printf("已探索：%d/%d 个地点 (%.1f%%)%n", visited, world.getRoomCount(),
+                        getVisitedRooms().getExploredRatio(world.getRoomCount()) * 100);
+            }
             System.out.println(currentRoom.getExitDescription());
             System.out.println(currentRoom.getItemsDescription());
             // 显示房间中的NPC信息
@@ -362,42 +370,56 @@ public class Player implements Serializable, BattleEntity {
     
     public void showTasks() {
         System.out.println("\n=== 任务列表 ===");
-        if (tasks.isEmpty()) {
+        TaskLog log = getTaskLog();
+        if (log.isEmpty()) {
             System.out.println("暂无任务。");
         } else {
-            for (Task task : tasks) {
-                if (task.getStatus() != TaskStatus.NOT_ACCEPTED) {
-                    System.out.println(task);
+            for (Task task : TaskManager.getAllTasks()) {
+                if (log.getStatus(task.getId()) != TaskStatus.NOT_ACCEPTED) {
+                    System.out.println(task.describe(log));
                 }
             }
         }
     }
     
+    /**
+     * 获取玩家在某个任务上的状态
+     */
+    public TaskStatus getTaskStatus(Task task) {
+        return getTaskLog().getStatus(task.getId());
+    }
+    
+    /**
+     * 获取玩家在某个任务上的进度计数
+     */
+    public int getTaskProgress(Task task) {
+        return getTaskLog().getProgress(task.getId());
+    }
+    
     public void acceptTask(String taskName) {
-        Task targetTask = null;
-        
         // 查找任务
-        for (Task task : tasks) {
-            if (task.getName().equals(taskName)) {
-                targetTask = task;
-                break;
-            }
-        }
+        Task targetTask = TaskManager.getTask(taskName);
         
         if (targetTask == null) {
             System.out.println("❌ 未找到任务: " + taskName);
             return;
         }
-        
-        if (targetTask.getStatus() != TaskStatus.NOT_ACCEPTED) {
-            System.out.println("❌ 任务 " + taskName + " 已经" + targetTask.getStatus() + "，无法接受。");
+        acceptTask(targetTask);
+    }
+    
+    public void acceptTask(Task targetTask) {
+        String taskName = targetTask.getName();
+        TaskLog log = getTaskLog();
+        TaskStatus status = log.getStatus(targetTask.getId());
+        if (status != TaskStatus.NOT_ACCEPTED) {
+            System.out.println("❌ 任务 " + taskName + " 已经" + status + "，无法接受。");
             return;
         }
         
         // 接受任务
-        targetTask.acceptTask();
+        targetTask.acceptTask(log);
         System.out.println("✅ 成功接受任务: " + taskName);
-        System.out.println("任务目标: " + targetTask.getObjective());
+        System.out.println("任务目标: " + targetTask.getObjective().describe(log.getProgress(targetTask.getId())));
         
         // 显示任务提示
         if (targetTask.isMainTask()) {
@@ -409,8 +431,9 @@ public class Player implements Serializable, BattleEntity {
         boolean hasAvailableTasks = false;
         
         System.out.println("\n=== 可接受的任务 ===");
-        for (Task task : tasks) {
-            if (task.getStatus() == TaskStatus.NOT_ACCEPTED) {
+        TaskLog log = getTaskLog();
+        for (Task task : TaskManager.getAllTasks()) {
+            if (log.getStatus(task.getId()) == TaskStatus.NOT_ACCEPTED) {
                 System.out.println("任务名称: " + task.getName());
                 System.out.println("任务描述: " + task.getDescription());
                 if (task.isMainTask()) {
@@ -450,7 +473,7 @@ public class Player implements Serializable, BattleEntity {
         if (this.hp <= 0) {
             this.isAlive = false;
             System.out.println("你死亡了！游戏结束！");
-            System.exit(0);
+            GameConsole.exit(0);
         }
     }
     
@@ -513,14 +536,50 @@ public class Player implements Serializable, BattleEntity {
     
     public void setCurrentRoom(Room currentRoom) {
         this.currentRoom = currentRoom;
+        if (currentRoom != null) {
+            this.currentRoomName = currentRoom.getName();
+            markVisited(currentRoom);
+        }
+    }
+    
+    /**
+     * 玩家到访过的房间（编号对应存档时所在的世界）
+     */
+    public VisitedRooms getVisitedRooms() {
+        if (visitedRooms == null) {
+            // 旧版Java序列化存档中没有到访记录
+            visitedRooms = new VisitedRooms();
+        }
+        return visitedRooms;
     }
     
-    public List<Task> getTasks() {
-        return tasks;
+    public boolean hasVisited(Room room) {
+        return room.getId() != Room.NO_ID && getVisitedRooms().contains(room.getId());
     }
     
-    public void setTasks(List<Task> tasks) {
-        this.tasks = tasks;
+    private void markVisited(Room room) {
+        if (room.getId() != Room.NO_ID) {
+            VisitedRooms visited = getVisitedRooms();
+            if (visited.bindTo(room.getWorld().getFingerprint())) {
+                System.out.println("世界地图已经变化，之前的探索记录已清空。");
+            }
+            visited.add(room.getId());
+        }
+    }
+    
+    /**
+     * 玩家的任务状态和进度
+     */
+    public TaskLog getTaskLog() {
+        if (taskLog == null) {
+            // 旧版本存档中没有任务记录
+            taskLog = new TaskLog(TaskManager.getTaskCount());
+        }
+        return taskLog;
+    }
+    
+    public void setTaskLog(TaskLog taskLog) {
+        this.taskLog = taskLog;
     }
     
     public int getLevel() {
@@ -699,39 +758,52 @@ public class Player implements Serializable, BattleEntity {
     @Override
     public void setElement(String element) {
         this.element = element;
+        this.elementType = Element.fromName(element);
+    }
+    
+    @Override
+    public Element getElementType() {
+        if (elementType == null) {
+            elementType = Element.fromName(element);
+        }
+        return elementType;
+    }
+    
+    @Override
+    public StatusEffectTable getEffectTable() {
+        // 旧版本存档中没有状态效果表
+        if (effectTable == null) {
+            effectTable = new StatusEffectTable();
+        }
+        return effectTable;
     }
     
     @Override
     public List<StatusEffect> getStatusEffects() {
-        return statusEffects;
+        return getEffectTable().toList();
     }
     
     @Override
     public void addStatusEffect(StatusEffect effect) {
-        statusEffects.add(effect);
+        getEffectTable().add(effect);
         System.out.println("✨ " + name + "获得了" + effect.getStatus().getName() + "效果！");
     }
     
     @Override
     public void removeStatusEffect(StatusEffect effect) {
-        statusEffects.remove(effect);
+        getEffectTable().remove(effect.getStatus());
         System.out.println("⏰ " + name + "的" + effect.getStatus().getName() + "效果消失了！");
     }
     
     @Override
     public void clearStatusEffects() {
-        statusEffects.clear();
+        getEffectTable().clear();
         System.out.println("🧹 " + name + "的所有状态效果被清除了！");
     }
     
     @Override
     public boolean hasStatus(BattleStatus status) {
-        for (StatusEffect effect : statusEffects) {
-            if (effect.getStatus() == status) {
-                return true;
-            }
-        }
-        return false;
+        return getEffectTable().has(status);
     }
     
     @Override
@@ -5,10 +5,10 @@ import java.io.Serializable;
 public class Reward implements Serializable {
     private static final long serialVersionUID = 1L;
     
-    private int experience;
-    private int reputation;
-    private Item item;
-    private String description;
+    private final int experience;
+    private final int reputation;
+    private final Item item;
+    private final String description;
     
     public Reward(int experience, int reputation, Item item, String description) {
         this.experience = experience;
@@ -34,7 +34,8 @@ public class Reward implements Serializable {
         }
         
         if (item != null) {
-            player.getBackpack().add(item);
+            // 奖励物品是任务定义的一部分，每个玩家获得一份独立的副本
+            player.getBackpack().add(item.copy());
             System.out.println("获得物品：" + item.getName());
         }
     }
@@ -43,31 +44,15 @@ public class Reward implements Serializable {
         return experience;
     }
     
-    public void setExperience(int experience) {
-        this.experience = experience;
-    }
-    
     public int getReputation() {
         return reputation;
     }
     
-    public void setReputation(int reputation) {
-        this.reputation = reputation;
-    }
-    
     public Item getItem() {
         return item;
     }
     
-    public void setItem(Item item) {
-        this.item = item;
-    }
-    
     public String getDescription() {
         return description;
     }
-    
-    public void setDescription(String description) {
-        this.description = description;
-    }
 }
\ No newline at end of file
@@ -1,95 +1,274 @@
 package com.mud.game.entity;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.*;
 
 public class Room implements Serializable {
     private static final long serialVersionUID = 1L;
+    /** 不属于任何世界实例的房间的编号 */
+    public static final int NO_ID = -1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // 序列化格式保持不变（物品仍按列表保存），旧存档中的房间可以照常读取
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("name", String.class),
+        new ObjectStreamField("description", String.class),
+        new ObjectStreamField("exits", Map.class),
+        new ObjectStreamField("items", List.class),
+        new ObjectStreamField("npc", NPC.class),
+        new ObjectStreamField("isVisited", boolean.class),
+    };
     
     private String name;
     private String description;
     private Map<Direction, Room> exits;
-    private List<Item> items;
+    private RoomItems items;
     private NPC npc;
     private boolean isVisited;
     
+    // 由模板创建时，物品和NPC在第一次用到时才创建；
+    // 出口直接查世界的邻接表，只有被修改时才转成 exits 映射
+    private transient RoomTemplate template;
+    private transient WorldView world;
+    private transient int id;
+    // 状态是否与模板不同（物品、NPC或到访标记被修改过）
+    private transient boolean dirty;
+    // 创建NPC所用的模板：NPC在战斗或对话中被修改时房间不会收到通知，换出时与新建的NPC比较
+    private transient NpcTemplate npcTemplate;
+    
+    // 显示文本缓存：出口、物品或名称描述变化时作废，下次显示时重新生成
+    private transient String exitText;
+    private transient String itemsText;
+    private transient String entryText;
+    private transient String arrivalText;
+    
     public Room(String name, String description) {
+        this.id = NO_ID;
         this.name = name;
         this.description = description;
-        this.exits = new HashMap<>();
-        this.items = new ArrayList<>();
+        this.exits = new EnumMap<>(Direction.class);
+        this.items = new RoomItems();
+        this.isVisited = false;
+    }
+    
+    /**
+     * 由共享的房间模板创建房间实例
+     * 名称和描述直接引用模板中的字符串，创建本身几乎没有开销
+     * @param world 房间所属的世界，用于查找出口和创建NPC
+     */
+    public Room(RoomTemplate template, WorldView world) {
+        this.id = template.getId();
+        this.name = template.getName();
+        this.description = template.getDescription();
         this.isVisited = false;
+        this.template = template;
+        this.world = world;
+    }
+    
+    /**
+     * 按模板创建本房间的物品和NPC（只执行一次）
+     */
+    private void materialize() {
+        RoomTemplate template = this.template;
+        if (template == null) {
+            return;
+        }
+        this.template = null;
+        
+        // 初始物品直接引用模板，拿走时才复制
+        items = new RoomItems(template.getItems());
+        if (template.getNpc() != null) {
+            npcTemplate = template.getNpc();
+            npc = npcTemplate.create(world.getDifficulty());
+        }
+    }
+    
+    /**
+     * 把世界邻接表中本房间的出口转成可修改的映射（只执行一次）
+     */
+    private Map<Direction, Room> exitMap() {
+        if (exits == null) {
+            exits = adjacentExits();
+        }
+        return exits;
+    }
+    
+    /**
+     * 按世界邻接表生成的出口映射（不保存）
+     */
+    private Map<Direction, Room> adjacentExits() {
+        Map<Direction, Room> map = new EnumMap<>(Direction.class);
+        for (Direction direction : DIRECTIONS) {
+            Room target = getExit(direction);
+            if (target != null) {
+                map.put(direction, target);
+            }
+        }
+        return map;
     }
     
     public void connectRoom(Direction direction, Room room) {
-        exits.put(direction, room);
+        exitMap().put(direction, room);
+        exitsChanged();
     }
     
     public Room getExit(Direction direction) {
-        return exits.get(direction);
+        if (exits != null) {
+            return exits.get(direction);
+        }
+        int target = world.getExitId(id, direction);
+        return target == NO_ID ? null : world.getRoom(target);
+    }
+    
+    /**
+     * 某个方向的出口指向的房间名称，没有出口时返回null
+     * 没有自己的出口映射时按编号查名称，不创建相邻房间，也不换入相邻区域
+     */
+    private String getExitName(Direction direction) {
+        if (exits != null) {
+            Room target = exits.get(direction);
+            return target == null ? null : target.getName();
+        }
+        int target = world.getExitId(id, direction);
+        return target == NO_ID ? null : world.getRoomName(target);
     }
     
     public void addItem(Item item) {
+        materialize();
         items.add(item);
+        itemsChanged();
+        changed();
     }
     
     public boolean removeItem(Item item) {
-        return items.remove(item);
+        materialize();
+        if (!items.remove(item)) {
+            return false;
+        }
+        itemsChanged();
+        changed();
+        return true;
     }
     
+    /**
+     * 按名称查找物品（不区分大小写），不随房间中放下的物品数量变慢
+     * 返回的可能是多个世界实例共享的初始物品，只能查看；要拿走物品请使用 takeItem
+     */
     public Item findItem(String itemName) {
-        for (Item item : items) {
-            if (item.getName().equalsIgnoreCase(itemName)) {
-                return item;
-            }
+        materialize();
+        return items.find(itemName);
+    }
+    
+    /**
+     * 按名称拿走一件物品（不区分大小写）
+     * 初始物品只在本房间中记为已拿走，返回的是其副本，模板和其他世界实例中的物品不受影响
+     * @return 拿走的物品，没有时返回null
+     */
+    public Item takeItem(String itemName) {
+        materialize();
+        Item item = items.take(itemName);
+        if (item != null) {
+            itemsChanged();
+            changed();
         }
-        return null;
+        return item;
     }
     
+    /**
+     * 出口描述（缓存，出口变化时重新生成；相邻房间改名不会使缓存作废）
+     */
     public String getExitDescription() {
-        if (exits.isEmpty()) {
-            return "这里没有明显的出口。";
+        if (exitText == null) {
+            exitText = renderExits();
         }
-        
+        return exitText;
+    }
+    
+    private String renderExits() {
         StringBuilder sb = new StringBuilder("出口：");
-        for (Map.Entry<Direction, Room> entry : exits.entrySet()) {
-            Direction dir = entry.getKey();
+        boolean hasExit = false;
+        for (Direction dir : DIRECTIONS) {
+            String targetName = getExitName(dir);
+            if (targetName == null) {
+                continue;
+            }
+            hasExit = true;
             // 显示：中文名称(英文代码):目标房间名
-            sb.append(dir.getChineseName()).append("(").append(dir.name().toLowerCase()).append("):").append(entry.getValue().getName()).append(" ");
+            sb.append(dir.getChineseName()).append("(").append(dir.name().toLowerCase()).append("):").append(targetName).append(" ");
+        }
+        if (!hasExit) {
+            return "这里没有明显的出口。";
         }
         return sb.toString();
     }
     
+    /**
+     * 物品描述（缓存，物品增减时重新生成）
+     */
     public String getItemsDescription() {
-        if (items.isEmpty()) {
-            return "这里什么都没有。";
+        materialize();
+        if (itemsText == null) {
+            itemsText = items.isEmpty() ? "这里什么都没有。" : items.describe();
         }
-        
-        StringBuilder sb = new StringBuilder("物品：");
-        for (Item item : items) {
-            sb.append(item.getName()).append(" ");
-        }
-        return sb.toString();
+        return itemsText;
     }
     
     public void enterRoom() {
-        isVisited = true;
-        System.out.println("\n=== " + name + " ===");
-        System.out.println(description);
-        System.out.println(getExitDescription());
-        System.out.println(getItemsDescription());
+        materialize();
+        // 标题、描述、出口和物品合成一段缓存的文本一次输出；NPC可能随时被击败，每次单独判断
+        if (entryText == null) {
+            String newline = System.lineSeparator();
+            entryText = newline + "=== " + name + " ===" + newline + description + newline
+                    + getExitDescription() + newline + getItemsDescription() + newline;
+        }
+        System.out.print(entryText);
         
         if (npc != null && npc.isAlive()) {
             System.out.println("这里有一个" + npc.getName() + "。");
         }
     }
     
+    /**
+     * 移动到本房间时显示的文本（房间名和描述，缓存）
+     */
+    public String getArrivalText() {
+        if (arrivalText == null) {
+            arrivalText = "你移动到了 " + name + "。" + System.lineSeparator() + description;
+        }
+        return arrivalText;
+    }
+    
+    private void exitsChanged() {
+        exitText = null;
+        entryText = null;
+    }
+    
+    private void itemsChanged() {
+        itemsText = null;
+        entryText = null;
+    }
+    
+    /**
+     * 记下房间状态已与模板不同，并通知所属世界（房间所在区域已被换出时会被换回）
+     */
+    private void changed() {
+        dirty = true;
+        if (world != null) {
+            world.roomChanged(this);
+        }
+    }
+    
     public String getName() {
         return name;
     }
     
     public void setName(String name) {
         this.name = name;
+        entryText = null;
+        arrivalText = null;
     }
     
     public String getDescription() {
@@ -98,37 +277,141 @@ public class Room implements Serializable {
     
     public void setDescription(String description) {
         this.description = description;
+        entryText = null;
+        arrivalText = null;
     }
     
+    /**
+     * 出口的只读映射；修改出口请使用 connectRoom/setExits
+     * 没有自己的出口映射时按世界邻接表生成，不会使房间因此无法换出
+     */
     public Map<Direction, Room> getExits() {
-        return exits;
+        return Collections.unmodifiableMap(exits != null ? exits : adjacentExits());
     }
     
     public void setExits(Map<Direction, Room> exits) {
         this.exits = exits;
+        exitsChanged();
     }
     
+    /**
+     * 房间中全部物品的只读列表（初始物品在前，放下的同名物品排在一起），增减物品请使用 addItem/takeItem/removeItem
+     * 列表中可能有共享的初始物品，不要修改其中的物品
+     */
     public List<Item> getItems() {
-        return items;
+        materialize();
+        return Collections.unmodifiableList(items.toList());
     }
     
     public void setItems(List<Item> items) {
-        this.items = items;
+        materialize();
+        this.items = RoomItems.copyOf(items);
+        itemsChanged();
+        changed();
     }
     
+    /**
+     * 房间中的NPC
+     * 调用方可能修改返回的NPC（战斗、对话）；只读取NPC不算修改，房间换出时才与模板比较判断NPC是否变化。
+     * 房间所在区域已换出时先换回，保证换出后对NPC的修改在下次换出时能被比较出来
+     */
     public NPC getNpc() {
+        materialize();
+        if (npc != null && world != null) {
+            world.roomChanged(this);
+        }
         return npc;
     }
     
     public void setNpc(NPC npc) {
+        materialize();
         this.npc = npc;
+        this.npcTemplate = null;
+        changed();
     }
     
+    /**
+     * 房间在所属世界中的编号（从0开始连续分配），不属于世界实例时为 NO_ID
+     */
+    public int getId() {
+        return id;
+    }
+    
+    /**
+     * 房间所属的世界，不属于世界实例时为null
+     */
+    public WorldView getWorld() {
+        return world;
+    }
+    
+    /**
+     * 房间自身的到访标记（旧存档兼容用）；进入房间不再设置它，玩家的到访记录见 Player.getVisitedRooms
+     */
     public boolean isVisited() {
         return isVisited;
     }
     
     public void setVisited(boolean visited) {
         isVisited = visited;
+        changed();
+    }
+    
+    /**
+     * 房间是否仍与模板完全一致（物品、NPC、到访标记和出口都没有被修改过）
+     * 只是查看过物品、NPC或显示过房间不算修改；这样的房间可以直接丢弃，需要时再由模板重新创建
+     */
+    public boolean isPristine() {
+        return !dirty && exits == null && !npcModified();
+    }
+    
+    /**
+     * 房间的NPC是否已与按模板新建的NPC不同（受过伤、被击败、关系值变化等）
+     */
+    private boolean npcModified() {
+        return npc != null && npcTemplate != null
+                && !npc.hasSameState(npcTemplate.create(world.getDifficulty()));
+    }
+    
+    /**
+     * 房间是否有自己的出口映射（被 connectRoom/setExits 修改过出口）
+     */
+    public boolean hasOwnExits() {
+        return exits != null;
+    }
+    
+    /**
+     * 恢复之前保存的房间状态（世界实例换回被换出的区域时使用），代替由模板创建物品和NPC
+     */
+    public void restoreState(boolean visited, List<Item> items, NPC npc) {
+        this.template = null;
+        this.npcTemplate = null;
+        this.dirty = true;
+        this.isVisited = visited;
+        this.items = RoomItems.copyOf(items);
+        this.npc = npc;
+    }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        materialize();
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("name", name);
+        fields.put("description", description);
+        fields.put("exits", exits != null ? exits : adjacentExits());
+        fields.put("items", items.toList());
+        fields.put("npc", npc);
+        fields.put("isVisited", isVisited);
+        out.writeFields();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        name = (String) fields.get("name", null);
+        description = (String) fields.get("description", null);
+        exits = (Map<Direction, Room>) fields.get("exits", null);
+        items = RoomItems.copyOf((List<Item>) fields.get("items", null));
+        npc = (NPC) fields.get("npc", null);
+        isVisited = fields.get("isVisited", false);
+        id = NO_ID;
     }
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+package com.mud.game.entity;
+
+import java.util.*;
+
+/**
+ * 房间地上的物品
+ * 由两部分组成：房间模板中的初始物品（多个世界实例共享、不复制、不修改），
+ * 以及本房间实例的改动——被拿走的初始物品只记下序号，放下的物品按名称（不区分大小写）分组保存，
+ * 同名物品组成一堆，按名称查找和拾取不需要遍历放下的全部物品。
+ * 初始物品来自世界文件，每个房间只有几件；大量堆积的只会是放下的物品。
+ */
+final class RoomItems {
+    private static final List<Item> NO_ITEMS = Collections.emptyList();
+
+    // 模板中的初始物品，以及其中已被拿走的序号
+    private final List<Item> base;
+    private BitSet taken;
+    private int takenCount;
+    // 规范化的名称 -> 放下的同名物品，各堆按第一件物品放入的先后排列；没有放下过物品时为空表
+    private Map<String, ArrayDeque<Item>> stacks = Collections.emptyMap();
+    private int addedCount;
+
+    RoomItems() {
+        this.base = NO_ITEMS;
+    }
+
+    /**
+     * 以模板的初始物品为基础（直接引用，不复制）
+     */
+    RoomItems(List<Item> base) {
+        this.base = base != null ? base : NO_ITEMS;
+    }
+
+    /**
+     * 由完整的物品列表创建（全部作为放下的物品）
+     */
+    static RoomItems copyOf(Collection<Item> items) {
+        RoomItems result = new RoomItems();
+        if (items != null) {
+            for (Item item : items) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    void add(Item item) {
+        if (stacks.isEmpty()) {
+            stacks = new LinkedHashMap<>();
+        }
+        stacks.computeIfAbsent(key(item.getName()), k -> new ArrayDeque<>(1)).addLast(item);
+        addedCount++;
+    }
+
+    /**
+     * 按名称查找物品（不区分大小写），有多件同名物品时返回最早放入的一件
+     * 返回的可能是共享的初始物品，只能用于查看
+     * @return 物品，没有时返回null
+     */
+    Item find(String name) {
+        int index = findBase(name);
+        if (index >= 0) {
+            return base.get(index);
+        }
+        ArrayDeque<Item> stack = stacks.get(key(name));
+        return stack != null ? stack.peekFirst() : null;
+    }
+
+    /**
+     * 按名称拿走一件物品（不区分大小写）
+     * @return 拿走的物品，初始物品返回其副本；没有时返回null
+     */
+    Item take(String name) {
+        int index = findBase(name);
+        if (index >= 0) {
+            markTaken(index);
+            return base.get(index).copy();
+        }
+        String key = key(name);
+        ArrayDeque<Item> stack = stacks.get(key);
+        if (stack == null) {
+            return null;
+        }
+        Item item = stack.removeFirst();
+        if (stack.isEmpty()) {
+            stacks.remove(key);
+        }
+        addedCount--;
+        return item;
+    }
+
+    /**
+     * 移除指定的物品（按对象本身，而不是按名称）
+     * @return 房间中是否有这件物品
+     */
+    boolean remove(Item item) {
+        for (int i = 0; i < base.size(); i++) {
+            if (base.get(i) == item && !isTaken(i)) {
+                markTaken(i);
+                return true;
+            }
+        }
+        String key = key(item.getName());
+        ArrayDeque<Item> stack = stacks.get(key);
+        if (stack == null) {
+            return false;
+        }
+        // 拾取的总是 find 返回的第一件，通常不需要在堆里查找
+        if (stack.peekFirst() == item) {
+            stack.removeFirst();
+        } else if (!stack.removeFirstOccurrence(item)) {
+            return false;
+        }
+        if (stack.isEmpty()) {
+            stacks.remove(key);
+        }
+        addedCount--;
+        return true;
+    }
+
+    int size() {
+        return base.size() - takenCount + addedCount;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 物品描述，同名物品合并显示为“名称×数量”
+     */
+    String describe() {
+        Map<String, Group> groups = new LinkedHashMap<>();
+        for (int i = 0; i < base.size(); i++) {
+            if (!isTaken(i)) {
+                count(groups, base.get(i).getName(), 1);
+            }
+        }
+        for (ArrayDeque<Item> stack : stacks.values()) {
+            count(groups, stack.peekFirst().getName(), stack.size());
+        }
+        StringBuilder sb = new StringBuilder("物品：");
+        for (Group group : groups.values()) {
+            sb.append(group.name);
+            if (group.count > 1) {
+                sb.append("×").append(group.count);
+            }
+            sb.append(" ");
+        }
+        return sb.toString();
+    }
+
+    List<Item> toList() {
+        List<Item> list = new ArrayList<>(size());
+        for (int i = 0; i < base.size(); i++) {
+            if (!isTaken(i)) {
+                list.add(base.get(i));
+            }
+        }
+        for (ArrayDeque<Item> stack : stacks.values()) {
+            list.addAll(stack);
+        }
+        return list;
+    }
+
+    private static void count(Map<String, Group> groups, String name, int amount) {
+        groups.computeIfAbsent(key(name), k -> new Group(name)).count += amount;
+    }
+
+    private int findBase(String name) {
+        for (int i = 0; i < base.size(); i++) {
+            if (!isTaken(i) && base.get(i).getName().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isTaken(int index) {
+        return taken != null && taken.get(index);
+    }
+
+    private void markTaken(int index) {
+        if (taken == null) {
+            taken = new BitSet(base.size());
+        }
+        taken.set(index);
+        takenCount++;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 显示时合并的同名物品
+     */
+    private static final class Group {
+        private final String name;
+        private int count;
+
+        private Group(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mud.game.entity;
+
+import java.util.*;
+
+/**
+ * 房间模板（不可变）
+ * 名称、描述、初始物品和NPC定义在整个进程内只保存一份，
+ * 由所有世界实例中的同名房间共享。房间直接引用模板中的初始物品，玩家拿走时才复制一份。
+ * 出口保存在世界模板的邻接表中。
+ */
+public final class RoomTemplate {
+    private final int id;
+    private final String name;
+    private final String description;
+    private final List<Item> items;
+    private final NpcTemplate npc;
+
+    /**
+     * @param id 房间编号（在世界中从0开始连续分配）
+     * @param items 初始物品的原型，房间实例直接引用，被拿走时才复制
+     * @param npc NPC模板，没有NPC时为null
+     */
+    public RoomTemplate(int id, String name, String description, List<Item> items, NpcTemplate npc) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.items = items.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(items));
+        this.npc = npc;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 初始物品的原型（被所有房间实例共享，不要修改或交给玩家，交出时使用 copy()）
+     */
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public NpcTemplate getNpc() {
+        return npc;
+    }
+}
@@ -20,53 +20,85 @@ public class StatusEffect implements Serializable {
         this.remainingTurns = duration;
     }
     
-    // 状态效果生效
-    public void applyEffect(BattleEntity target) {
+    /**
+     * 状态效果生效
+     * @return 需要显示的信息，没有时返回null
+     */
+    public String applyEffect(BattleEntity target) {
+        return apply(status, intensity, target);
+    }
+    
+    /**
+     * 指定强度的状态对目标生效（供状态效果表直接调用，无需创建效果对象）
+     * @return 需要显示的信息，没有时返回null
+     */
+    public static String apply(BattleStatus status, int intensity, BattleEntity target) {
         switch (status) {
             case POISON:
                 int poisonDamage = intensity * 2;
                 target.setHp(target.getHp() - poisonDamage);
-                System.out.println("☠️ " + target.getName() + "受到" + poisonDamage + "点毒伤！");
-                break;
+                return "☠️ " + target.getName() + "受到" + poisonDamage + "点毒伤！";
                 
             case BLEED:
                 int bleedDamage = intensity * 3;
                 target.setHp(target.getHp() - bleedDamage);
-                System.out.println("🩸 " + target.getName() + "流血造成" + bleedDamage + "点伤害！");
-                break;
+                return "🩸 " + target.getName() + "流血造成" + bleedDamage + "点伤害！";
                 
             case BURN:
                 int burnDamage = intensity * 2;
                 target.setHp(target.getHp() - burnDamage);
-                System.out.println("🔥 " + target.getName() + "燃烧造成" + burnDamage + "点伤害！");
-                break;
+                return "🔥 " + target.getName() + "燃烧造成" + burnDamage + "点伤害！";
                 
             case REGENERATION:
                 int healAmount = intensity * 3;
                 int newHp = Math.min(target.getHp() + healAmount, target.getMaxHp());
                 target.setHp(newHp);
-                System.out.println("💚 " + target.getName() + "回复了" + healAmount + "点生命！");
-                break;
+                return "💚 " + target.getName() + "回复了" + healAmount + "点生命！";
                 
             case ATTACK_BOOST:
-                target.setTempAtk(target.getTempAtk() + intensity * 2);
-                break;
-                
             case DEFENSE_BOOST:
-                target.setTempDef(target.getTempDef() + intensity * 2);
-                break;
-                
             case WEAK:
-                target.setTempAtk(Math.max(0, target.getTempAtk() - intensity));
-                break;
+                // 攻防修正由战斗循环按回合压入修正栈，见 getAtkModifier/getDefModifier
+                return null;
                 
             case STUN:
                 // 眩晕效果在行动时处理
-                System.out.println("😵 " + target.getName() + "处于眩晕状态，无法行动！");
-                break;
+                return "😵 " + target.getName() + "处于眩晕状态，无法行动！";
+                
+            default:
+                return null;
         }
     }
     
+    /**
+     * 本效果每回合提供的临时攻击力修正
+     */
+    public int getAtkModifier() {
+        return atkModifier(status, intensity);
+    }
+    
+    public static int atkModifier(BattleStatus status, int intensity) {
+        switch (status) {
+            case ATTACK_BOOST:
+                return intensity * 2;
+            case WEAK:
+                return -intensity;
+            default:
+                return 0;
+        }
+    }
+    
+    /**
+     * 本效果每回合提供的临时防御力修正
+     */
+    public int getDefModifier() {
+        return defModifier(status, intensity);
+    }
+    
+    public static int defModifier(BattleStatus status, int intensity) {
+        return status == BattleStatus.DEFENSE_BOOST ? intensity * 2 : 0;
+    }
+    
     // 回合结束
     public void endTurn() {
         remainingTurns--;
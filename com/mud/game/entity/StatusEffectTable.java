@@ -0,0 +1,143 @@
+package com.mud.game.entity;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 状态效果表
+ * 每种状态占一个槽位（按 {@link BattleStatus#ordinal()} 索引），用位掩码记录哪些状态存在，
+ * 剩余回合和强度保存在并行的int数组中。
+ * 状态检查是一次位运算，回合结算按位遍历，不创建迭代器或效果对象。
+ *
+ * 同一种状态重复施加时不再叠加成多个效果，而是取较高的强度和较长的剩余回合。
+ */
+public class StatusEffectTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final BattleStatus[] STATUSES = BattleStatus.values();
+
+    /** 所有负面状态的掩码 */
+    public static final int NEGATIVE_MASK = negativeMask();
+
+    private int mask;
+    private final int[] remainingTurns = new int[STATUSES.length];
+    private final int[] intensities = new int[STATUSES.length];
+
+    public static int bit(BattleStatus status) {
+        return 1 << status.ordinal();
+    }
+
+    /**
+     * 掩码中最低位对应的状态（配合 mask &= mask - 1 按位遍历）
+     */
+    public static BattleStatus lowestStatus(int mask) {
+        return STATUSES[Integer.numberOfTrailingZeros(mask)];
+    }
+
+    public boolean has(BattleStatus status) {
+        return (mask & bit(status)) != 0;
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    /**
+     * 当前存在的状态的掩码
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    public int getIntensity(BattleStatus status) {
+        return has(status) ? intensities[status.ordinal()] : 0;
+    }
+
+    public int getRemainingTurns(BattleStatus status) {
+        return has(status) ? remainingTurns[status.ordinal()] : 0;
+    }
+
+    /**
+     * 施加状态（已存在时取较高的强度和较长的剩余回合）
+     */
+    public void add(BattleStatus status, int intensity, int turns) {
+        int index = status.ordinal();
+        if (has(status)) {
+            intensities[index] = Math.max(intensities[index], intensity);
+            remainingTurns[index] = Math.max(remainingTurns[index], turns);
+        } else {
+            intensities[index] = intensity;
+            remainingTurns[index] = turns;
+            mask |= bit(status);
+        }
+    }
+
+    public void add(StatusEffect effect) {
+        add(effect.getStatus(), effect.getIntensity(), effect.getRemainingTurns());
+    }
+
+    public void remove(BattleStatus status) {
+        mask &= ~bit(status);
+    }
+
+    /**
+     * 移除掩码中的所有状态
+     * @return 实际被移除的状态的掩码
+     */
+    public int removeAll(int statusMask) {
+        int removed = mask & statusMask;
+        mask &= ~statusMask;
+        return removed;
+    }
+
+    public void clear() {
+        mask = 0;
+    }
+
+    /**
+     * 回合结束：所有状态的剩余回合减一，移除到期的状态
+     * @return 本次到期的状态的掩码
+     */
+    public int tick() {
+        int expired = 0;
+        for (int m = mask; m != 0; m &= m - 1) {
+            int index = Integer.numberOfTrailingZeros(m);
+            if (--remainingTurns[index] <= 0) {
+                expired |= 1 << index;
+            }
+        }
+        mask &= ~expired;
+        return expired;
+    }
+
+    /**
+     * 复制另一张表的全部内容
+     */
+    public void copyFrom(StatusEffectTable other) {
+        mask = other.mask;
+        System.arraycopy(other.remainingTurns, 0, remainingTurns, 0, remainingTurns.length);
+        System.arraycopy(other.intensities, 0, intensities, 0, intensities.length);
+    }
+
+    /**
+     * 当前状态的快照（按状态定义顺序），用于显示和存档
+     */
+    public List<StatusEffect> toList() {
+        List<StatusEffect> effects = new ArrayList<>(Integer.bitCount(mask));
+        for (int m = mask; m != 0; m &= m - 1) {
+            int index = Integer.numberOfTrailingZeros(m);
+            effects.add(new StatusEffect(STATUSES[index], intensities[index], remainingTurns[index]));
+        }
+        return effects;
+    }
+
+    private static int negativeMask() {
+        int negative = 0;
+        for (BattleStatus status : STATUSES) {
+            if (!status.isPositive()) {
+                negative |= bit(status);
+            }
+        }
+        return negative;
+    }
+}
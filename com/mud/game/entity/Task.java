@@ -2,32 +2,47 @@ package com.mud.game.entity;
 
 import java.io.Serializable;
 
+/**
+ * 任务定义（不可变模板）
+ * 所有玩家共享同一份任务定义，玩家各自的状态和进度记录在 {@link TaskLog} 中
+ */
 public class Task implements Serializable {
     private static final long serialVersionUID = 1L;
     
-    private String name;
-    private String description;
-    private TaskStatus status;
-    private TaskObjective objective;
-    private Reward reward;
-    private boolean isMainTask;
+    private final int id;
+    private final String name;
+    private final String description;
+    private final TaskObjective objective;
+    private final Reward reward;
+    private final boolean isMainTask;
+    // 自动接受任务的触发条件（触发类型和房间名或NPC名），没有时为null
+    private final String triggerType;
+    private final String triggerTarget;
     
-    public Task(String name, String description, TaskObjective objective, Reward reward, boolean isMainTask) {
+    public Task(int id, String name, String description, TaskObjective objective, Reward reward, boolean isMainTask) {
+        this(id, name, description, objective, reward, isMainTask, null, null);
+    }
+    
+    public Task(int id, String name, String description, TaskObjective objective, Reward reward, boolean isMainTask,
+                String triggerType, String triggerTarget) {
+        this.id = id;
         this.name = name;
         this.description = description;
         this.objective = objective;
         this.reward = reward;
-        this.status = TaskStatus.NOT_ACCEPTED;
         this.isMainTask = isMainTask;
+        this.triggerType = triggerType;
+        this.triggerTarget = triggerTarget;
     }
     
     public boolean checkComplete(Player player) {
-        if (status == TaskStatus.COMPLETED) {
+        TaskLog log = player.getTaskLog();
+        if (log.getStatus(id) == TaskStatus.COMPLETED) {
             return true;
         }
         
-        if (objective.isCompleted()) {
-            status = TaskStatus.COMPLETED;
+        if (objective.isCompleted(log.getProgress(id))) {
+            log.setStatus(id, TaskStatus.COMPLETED);
             System.out.println("任务完成：" + name);
             if (reward != null) {
                 reward.giveReward(player);
@@ -38,76 +53,77 @@ public class Task implements Serializable {
         return false;
     }
     
-    public void updateProgress(String targetType, String targetName, int amount) {
-        if (status != TaskStatus.IN_PROGRESS) {
+    /**
+     * 增加任务进度（目标是否匹配由事件订阅决定）
+     */
+    public void updateProgress(TaskLog log, int amount) {
+        if (log.getStatus(id) != TaskStatus.IN_PROGRESS) {
             return;
         }
         
-        if (objective.getTargetType().equals(targetType) && 
-            (objective.getTargetName() == null || objective.getTargetName().equals(targetName))) {
-            objective.updateProgress(amount);
-            System.out.println("任务进度更新：" + objective);
-        }
+        int progress = objective.addProgress(log.getProgress(id), amount);
+        log.setProgress(id, progress);
+        System.out.println("任务进度更新：" + objective.describe(progress));
     }
     
-    public void acceptTask() {
-        if (status == TaskStatus.NOT_ACCEPTED) {
-            status = TaskStatus.IN_PROGRESS;
+    public void acceptTask(TaskLog log) {
+        if (log.getStatus(id) == TaskStatus.NOT_ACCEPTED) {
+            log.setStatus(id, TaskStatus.IN_PROGRESS);
             System.out.println("接受任务：" + name);
             System.out.println("任务描述：" + description);
         }
     }
     
-    public String getName() {
-        return name;
+    /**
+     * 任务编号（任务定义表中的下标）
+     */
+    public int getId() {
+        return id;
     }
     
-    public void setName(String name) {
-        this.name = name;
+    public String getName() {
+        return name;
     }
     
     public String getDescription() {
         return description;
     }
     
-    public void setDescription(String description) {
-        this.description = description;
-    }
-    
-    public TaskStatus getStatus() {
-        return status;
-    }
-    
-    public void setStatus(TaskStatus status) {
-        this.status = status;
-    }
-    
     public TaskObjective getObjective() {
         return objective;
     }
     
-    public void setObjective(TaskObjective objective) {
-        this.objective = objective;
-    }
-    
     public Reward getReward() {
         return reward;
     }
     
-    public void setReward(Reward reward) {
-        this.reward = reward;
-    }
-    
     public boolean isMainTask() {
         return isMainTask;
     }
     
-    public void setMainTask(boolean mainTask) {
-        isMainTask = mainTask;
+    /**
+     * 自动接受任务的触发类型，没有触发条件时为null
+     */
+    public String getTriggerType() {
+        return triggerType;
+    }
+    
+    /**
+     * 触发目标（房间名或NPC名），没有触发条件时为null
+     */
+    public String getTriggerTarget() {
+        return triggerTarget;
+    }
+    
+    /**
+     * 按玩家的任务记录描述任务
+     */
+    public String describe(TaskLog log) {
+        return name + " [" + log.getStatus(id) + "] - " + description + "\n进度：" + objective.describe(log.getProgress(id));
     }
     
     @Override
     public String toString() {
-        return name + " [" + status + "] - " + description + "\n进度：" + objective;
+        return name + " - " + description;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.mud.game.entity;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 玩家的任务记录
+ * 按任务编号保存每个任务的状态（1字节）和进度计数，任务的名称、描述和奖励都来自共享的任务定义，
+ * 玩家占用的内存和存档大小只与任务数量有关，与任务文本无关。
+ */
+public class TaskLog implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    
+    private byte[] statuses;
+    private int[] progress;
+    
+    public TaskLog(int taskCount) {
+        this.statuses = new byte[taskCount];
+        this.progress = new int[taskCount];
+    }
+    
+    public TaskStatus getStatus(int taskId) {
+        return taskId < statuses.length ? STATUSES[statuses[taskId]] : TaskStatus.NOT_ACCEPTED;
+    }
+    
+    public void setStatus(int taskId, TaskStatus status) {
+        ensureCapacity(taskId);
+        statuses[taskId] = (byte) status.ordinal();
+    }
+    
+    public int getProgress(int taskId) {
+        return taskId < progress.length ? progress[taskId] : 0;
+    }
+    
+    public void setProgress(int taskId, int count) {
+        ensureCapacity(taskId);
+        progress[taskId] = count;
+    }
+    
+    /**
+     * 是否有任何任务被接受过
+     */
+    public boolean isEmpty() {
+        for (byte status : statuses) {
+            if (status != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void ensureCapacity(int taskId) {
+        if (taskId >= statuses.length) {
+            int capacity = Math.max(taskId + 1, statuses.length * 2);
+            statuses = Arrays.copyOf(statuses, capacity);
+            progress = Arrays.copyOf(progress, capacity);
+        }
+    }
+}
@@ -2,76 +2,57 @@ package com.mud.game.entity;
 
 import java.io.Serializable;
 
+/**
+ * 任务目标（不可变），完成进度记录在玩家的 {@link TaskLog} 中
+ */
 public class TaskObjective implements Serializable {
     private static final long serialVersionUID = 1L;
     
-    private String description;
-    private int targetCount;
-    private int currentCount;
-    private String targetType; // "kill", "collect", "talk", "explore"
-    private String targetName;
+    private final String description;
+    private final int targetCount;
+    private final String targetType; // "kill", "collect", "talk", "explore"
+    private final String targetName;
     
     public TaskObjective(String description, String targetType, String targetName, int targetCount) {
         this.description = description;
         this.targetType = targetType;
         this.targetName = targetName;
         this.targetCount = targetCount;
-        this.currentCount = 0;
     }
     
-    public boolean isCompleted() {
+    public boolean isCompleted(int currentCount) {
         return currentCount >= targetCount;
     }
     
-    public void updateProgress(int amount) {
-        currentCount += amount;
-        if (currentCount > targetCount) {
-            currentCount = targetCount;
-        }
+    /**
+     * 计算增加进度后的计数（不超过目标数量）
+     */
+    public int addProgress(int currentCount, int amount) {
+        return Math.min(currentCount + amount, targetCount);
     }
     
     public String getDescription() {
         return description;
     }
     
-    public void setDescription(String description) {
-        this.description = description;
-    }
-    
     public int getTargetCount() {
         return targetCount;
     }
     
-    public void setTargetCount(int targetCount) {
-        this.targetCount = targetCount;
-    }
-    
-    public int getCurrentCount() {
-        return currentCount;
-    }
-    
-    public void setCurrentCount(int currentCount) {
-        this.currentCount = currentCount;
-    }
-    
     public String getTargetType() {
         return targetType;
     }
     
-    public void setTargetType(String targetType) {
-        this.targetType = targetType;
-    }
-    
     public String getTargetName() {
         return targetName;
     }
     
-    public void setTargetName(String targetName) {
-        this.targetName = targetName;
+    public String describe(int currentCount) {
+        return description + " (" + currentCount + "/" + targetCount + ")";
     }
     
     @Override
     public String toString() {
-        return description + " (" + currentCount + "/" + targetCount + ")";
+        return description + " (" + targetCount + ")";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package com.mud.game.entity;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 玩家到访过的房间（按房间编号的稀疏位图）
+ * 编号按 CHUNK_BITS 分块，只为到访过的块分配位，块按编号有序排列。
+ * 世界中相邻的房间编号相邻（同一区域的房间连续编号），
+ * 所以即使在上百万个房间的世界里，一个玩家的记录通常也只有几KB。
+ */
+public class VisitedRooms implements Serializable {
+    private static final long serialVersionUID = 1L;
+    // 每块的房间数，与世界区域的大小相当
+    private static final int CHUNK_BITS = 256;
+    private static final int CHUNK_SHIFT = 8;
+    private static final int WORDS = CHUNK_BITS / 64;
+
+    private int[] keys;   // 块编号（房间编号 / CHUNK_BITS），升序
+    private long[] words; // 第 i 块的位为 words[i * WORDS .. (i + 1) * WORDS)
+    private int chunkCount;
+    private int count;
+    // 编号所属世界的指纹，0 表示未知（旧存档）
+    private long world;
+
+    public VisitedRooms() {
+        this.keys = new int[4];
+        this.words = new long[4 * WORDS];
+    }
+
+    /**
+     * 记录到访
+     * @return 是否是第一次到访
+     */
+    public boolean add(int roomId) {
+        int chunk = chunkIndex(roomId >>> CHUNK_SHIFT);
+        if (chunk < 0) {
+            chunk = insertChunk(-chunk - 1, roomId >>> CHUNK_SHIFT);
+        }
+        int word = chunk * WORDS + ((roomId & (CHUNK_BITS - 1)) >>> 6);
+        long bit = 1L << roomId;
+        if ((words[word] & bit) != 0) {
+            return false;
+        }
+        words[word] |= bit;
+        count++;
+        return true;
+    }
+
+    public boolean contains(int roomId) {
+        if (roomId < 0) {
+            return false;
+        }
+        int chunk = chunkIndex(roomId >>> CHUNK_SHIFT);
+        return chunk >= 0 && (words[chunk * WORDS + ((roomId & (CHUNK_BITS - 1)) >>> 6)] & (1L << roomId)) != 0;
+    }
+
+    /**
+     * 到访过的房间数
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 编号在 [fromId, toId) 之间的房间中到访过的数量（例如一个区域的探索进度）
+     */
+    public int count(int fromId, int toId) {
+        int total = 0;
+        for (int id = nextVisited(fromId); id >= 0 && id < toId; id = nextVisited(id + 1)) {
+            int remaining = Math.min(toId - id, 64 - (id & 63));
+            long word = words[chunkIndex(id >>> CHUNK_SHIFT) * WORDS + ((id & (CHUNK_BITS - 1)) >>> 6)] >>> id;
+            total += Long.bitCount(remaining == 64 ? word : word & ((1L << remaining) - 1));
+            id += remaining - 1;
+        }
+        return total;
+    }
+
+    /**
+     * 探索进度
+     * @param roomCount 世界中的房间总数
+     * @return 0到1之间的比例
+     */
+    public double getExploredRatio(int roomCount) {
+        return roomCount > 0 ? Math.min(1.0, (double) count / roomCount) : 0;
+    }
+
+    /**
+     * 编号不小于 fromId 的第一个到访过的房间，用于按顺序遍历
+     * @return 房间编号，没有时返回 Room.NO_ID
+     */
+    public int nextVisited(int fromId) {
+        int from = Math.max(fromId, 0);
+        int chunk = chunkIndex(from >>> CHUNK_SHIFT);
+        if (chunk < 0) {
+            chunk = -chunk - 1;
+            from = 0;
+        } else {
+            from &= CHUNK_BITS - 1;
+        }
+        for (; chunk < chunkCount; chunk++, from = 0) {
+            for (int w = from >>> 6; w < WORDS; w++) {
+                long word = words[chunk * WORDS + w];
+                if (w == from >>> 6) {
+                    word &= -1L << from;
+                }
+                if (word != 0) {
+                    return (keys[chunk] << CHUNK_SHIFT) + w * 64 + Long.numberOfTrailingZeros(word);
+                }
+            }
+        }
+        return Room.NO_ID;
+    }
+
+    /**
+     * 记录的编号所属世界的指纹，未知时为0
+     */
+    public long getWorld() {
+        return world;
+    }
+
+    /**
+     * 设置记录所属世界的指纹（读取存档时使用）
+     */
+    public void setWorld(long fingerprint) {
+        this.world = fingerprint;
+    }
+
+    /**
+     * 把记录关联到玩家所在的世界
+     * 记录来自另一个世界时（世界文件变化后房间编号会移动）编号已经无效，清空记录；
+     * 所属世界未知的记录无法判断，保留原样
+     * @param fingerprint 世界的指纹，见 WorldView.getFingerprint
+     * @return 是否清空了记录
+     */
+    public boolean bindTo(long fingerprint) {
+        if (world == fingerprint) {
+            return false;
+        }
+        boolean stale = world != 0;
+        if (stale) {
+            clear();
+        }
+        world = fingerprint;
+        return stale;
+    }
+
+    public void clear() {
+        chunkCount = 0;
+        count = 0;
+        Arrays.fill(words, 0);
+    }
+
+    private int chunkIndex(int key) {
+        return Arrays.binarySearch(keys, 0, chunkCount, key);
+    }
+
+    private int insertChunk(int index, int key) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, chunkCount * 2);
+            words = Arrays.copyOf(words, chunkCount * 2 * WORDS);
+        }
+        System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+        System.arraycopy(words, index * WORDS, words, (index + 1) * WORDS, (chunkCount - index) * WORDS);
+        Arrays.fill(words, index * WORDS, (index + 1) * WORDS, 0);
+        keys[index] = key;
+        chunkCount++;
+        return index;
+    }
+}
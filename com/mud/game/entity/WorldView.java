@@ -0,0 +1,53 @@
+package com.mud.game.entity;
+
+import java.util.List;
+
+/**
+ * 房间所属的世界实例
+ * 由模板创建的房间通过它查找出口指向的房间，并按世界的难度创建NPC
+ */
+public interface WorldView {
+    /**
+     * 按名称获取本世界中的房间，不存在时返回null
+     */
+    Room getRoom(String name);
+
+    /**
+     * 按编号获取本世界中的房间
+     */
+    Room getRoom(int id);
+
+    /**
+     * 按编号获取房间名称（不创建房间对象，也不换入房间所在的区域）
+     */
+    String getRoomName(int id);
+
+    /**
+     * 世界中的房间总数（房间编号为 0 到 总数-1）
+     */
+    int getRoomCount();
+
+    /**
+     * 世界的指纹，房间编号只在指纹相同的世界之间通用（不会为0）
+     */
+    long getFingerprint();
+
+    /**
+     * 房间某个方向的出口指向的房间编号，没有出口时返回 Room.NO_ID
+     */
+    int getExitId(int roomId, Direction direction);
+
+    /**
+     * 查找两个房间之间的最短路径
+     * @return 依次要走的方向；起点即终点时为空列表，无法到达时返回null
+     */
+    List<Direction> findPath(int fromId, int toId);
+
+    /**
+     * 房间的状态（物品、NPC、到访标记）发生了变化，或交出了可能被修改的NPC
+     * 房间所在的区域已被换出时由世界实例换回，保证改动在区域再次换出时被保存
+     */
+    void roomChanged(Room room);
+
+    GameDifficulty getDifficulty();
+}
@@ -0,0 +1,258 @@
+package com.mud.game.server;
+
+import com.mud.game.MudGame;
+import com.mud.game.system.GameConsole;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一个telnet连接
+ * 负责按行切分输入（处理telnet协商字节和CRLF）、缓存待发送的输出，
+ * 并在独立的会话线程上运行完整的游戏流程（创建角色、游戏循环、战斗交互）
+ */
+public class ClientSession {
+    private static final int MAX_LINE_BYTES = 1024;
+    private static final int MAX_QUEUED_LINES = 64;
+    // 等待发送的输出上限，客户端长时间不接收时断开连接，避免输出无限堆积
+    private static final int MAX_QUEUED_OUTPUT_BYTES = 1024 * 1024;
+
+    // telnet 协议字节
+    private static final int IAC = 0xFF;
+    private static final int SB = 0xFA;
+    private static final int SE = 0xF0;
+    private static final int WILL = 0xFB;
+    private static final int DONT = 0xFE;
+
+    private final SocketChannel channel;
+    private final MudServer server;
+
+    // 输入切分状态（仅选择器线程访问）
+    private final ByteArrayOutputStream lineBuffer;
+    private int telnetState;
+    private boolean lineTooLong;
+
+    // 会话线程与选择器线程之间共享的状态
+    private final BlockingQueue<String> inputLines;
+    private final Queue<ByteBuffer> pendingWrites;
+    private final AtomicLong queuedBytes;
+    private volatile Thread sessionThread;
+    private volatile boolean open;
+    private volatile boolean closeAfterFlush;
+
+    public ClientSession(SocketChannel channel, MudServer server) {
+        this.channel = channel;
+        this.server = server;
+        this.lineBuffer = new ByteArrayOutputStream();
+        this.telnetState = 0;
+        this.inputLines = new LinkedBlockingQueue<>(MAX_QUEUED_LINES);
+        this.pendingWrites = new ConcurrentLinkedQueue<>();
+        this.queuedBytes = new AtomicLong();
+        this.open = true;
+        this.closeAfterFlush = false;
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * 处理从套接字读到的字节，切分出完整的行（选择器线程调用）
+     */
+    public void onBytesRead(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            int b = buffer.get() & 0xFF;
+
+            // 跳过telnet协商序列
+            if (telnetState == 1) {
+                if (b == IAC) {
+                    appendByte(b);
+                    telnetState = 0;
+                } else if (b == SB) {
+                    telnetState = 3;
+                } else if (b >= WILL && b <= DONT) {
+                    telnetState = 2;
+                } else {
+                    telnetState = 0;
+                }
+                continue;
+            } else if (telnetState == 2) {
+                telnetState = 0;
+                continue;
+            } else if (telnetState == 3) {
+                if (b == IAC) {
+                    telnetState = 4;
+                }
+                continue;
+            } else if (telnetState == 4) {
+                telnetState = (b == SE) ? 0 : 3;
+                continue;
+            }
+
+            if (b == IAC) {
+                telnetState = 1;
+            } else if (b == '\n') {
+                completeLine();
+            } else if (b != '\r' && b != 0) {
+                appendByte(b);
+            }
+        }
+    }
+
+    private void appendByte(int b) {
+        if (lineBuffer.size() >= MAX_LINE_BYTES) {
+            lineTooLong = true;
+            return;
+        }
+        lineBuffer.write(b);
+    }
+
+    private void completeLine() {
+        String line = lineBuffer.toString(StandardCharsets.UTF_8);
+        lineBuffer.reset();
+        if (lineTooLong) {
+            lineTooLong = false;
+            return;
+        }
+        // 客户端输入过快时丢弃多余的行，并告诉玩家哪一行没有被处理
+        if (!inputLines.offer(line)) {
+            enqueue(("输入过快，已忽略：" + line + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 把输出加入发送队列并通知选择器线程（任意线程调用）
+     * 队列中的数据超过上限时说明客户端已不再接收，断开连接
+     */
+    private void enqueue(byte[] bytes) {
+        if (!channel.isOpen()) {
+            return;
+        }
+        if (queuedBytes.addAndGet(bytes.length) > MAX_QUEUED_OUTPUT_BYTES) {
+            System.err.println("客户端接收过慢，待发送的输出超过 " + MAX_QUEUED_OUTPUT_BYTES / 1024 + "KB，断开连接");
+            close();
+            return;
+        }
+        pendingWrites.add(ByteBuffer.wrap(bytes));
+        server.requestWrite(this);
+    }
+
+    /**
+     * 在会话线程上启动游戏
+     */
+    public void start(SessionRuntime runtime) {
+        sessionThread = runtime.start(this::run);
+    }
+
+    /**
+     * 会话线程主体：运行一局完整的游戏，游戏中所有的输入提示都阻塞在本会话的输入队列上
+     */
+    private void run() {
+        GameConsole.bind(new SessionOutputStream(), this::takeLine);
+        try {
+            new MudGame().start();
+        } catch (GameConsole.SessionClosedException e) {
+            // 玩家退出、死亡或连接断开
+        } catch (RuntimeException e) {
+            System.out.println("会话出现错误：" + e.getMessage());
+        } finally {
+            GameConsole.unbind();
+            closeAfterFlush();
+        }
+    }
+
+    private String takeLine() throws InterruptedException {
+        while (open) {
+            String line = inputLines.poll(1, TimeUnit.SECONDS);
+            if (line != null) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private void closeAfterFlush() {
+        closeAfterFlush = true;
+        open = false;
+        server.requestWrite(this);
+    }
+
+    /**
+     * 将待发送数据写入套接字（选择器线程调用）
+     * @return 是否已全部写完
+     */
+    public boolean flushWrites() throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = pendingWrites.peek()) != null) {
+            channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                return false;
+            }
+            pendingWrites.poll();
+            queuedBytes.addAndGet(-buffer.capacity());
+        }
+        return true;
+    }
+
+    public boolean isCloseAfterFlush() {
+        return closeAfterFlush;
+    }
+
+    /**
+     * 连接断开时调用，唤醒仍在等待输入或暂停中的会话线程使其退出
+     */
+    public void close() {
+        open = false;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // 连接已经关闭，忽略
+        }
+        Thread thread = sessionThread;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * 会话输出流：缓存输出，flush 时交给选择器线程发送
+     * 换行统一转换为telnet使用的CRLF
+     */
+    private class SessionOutputStream extends OutputStream {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                buffer.write('\r');
+            }
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (buffer.size() == 0) {
+                return;
+            }
+            byte[] bytes = buffer.toByteArray();
+            buffer.reset();
+            enqueue(bytes);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.mud.game.server;
+
+import com.mud.game.system.GameConsole;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 多会话telnet服务器
+ * 使用单个选择器线程以非阻塞方式接受连接、读取输入和发送输出，
+ * 每个连接对应一个独立的玩家会话，会话运行在各自的会话线程上
+ */
+public class MudServer {
+    private static final int DEFAULT_PORT = 4000;
+    private static final int READ_BUFFER_SIZE = 4096;
+
+    private final int port;
+    private final SessionRuntime runtime;
+    private final Queue<ClientSession> writeRequests;
+    private Selector selector;
+    private volatile boolean running;
+
+    public MudServer(int port) {
+        this.port = port;
+        this.runtime = new SessionRuntime();
+        this.writeRequests = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * 启动服务器并运行选择器循环（阻塞当前线程）
+     */
+    public void start() throws IOException {
+        GameConsole.install();
+
+        selector = Selector.open();
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+
+        System.out.println("武侠世界服务器已启动，端口：" + port
+                + "（会话线程：" + (runtime.isVirtual() ? "虚拟线程" : "平台线程") + "）");
+
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        while (running) {
+            selector.select();
+            processWriteRequests();
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                if (!key.isValid()) {
+                    continue;
+                }
+                try {
+                    if (key.isAcceptable()) {
+                        accept(serverChannel);
+                    } else {
+                        if (key.isReadable()) {
+                            read(key, readBuffer);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(key);
+                        }
+                    }
+                } catch (IOException e) {
+                    disconnect(key);
+                }
+            }
+        }
+
+        serverChannel.close();
+        selector.close();
+    }
+
+    /**
+     * 停止服务器
+     */
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * 请求发送会话的待写数据（任意线程调用）
+     */
+    void requestWrite(ClientSession session) {
+        writeRequests.add(session);
+        selector.wakeup();
+    }
+
+    private void accept(ServerSocketChannel serverChannel) throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+
+        ClientSession session = new ClientSession(channel, this);
+        channel.register(selector, SelectionKey.OP_READ, session);
+        session.start(runtime);
+    }
+
+    private void read(SelectionKey key, ByteBuffer readBuffer) throws IOException {
+        ClientSession session = (ClientSession) key.attachment();
+        readBuffer.clear();
+        int n = session.getChannel().read(readBuffer);
+        if (n < 0) {
+            disconnect(key);
+            return;
+        }
+        readBuffer.flip();
+        session.onBytesRead(readBuffer);
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        ClientSession session = (ClientSession) key.attachment();
+        if (session.flushWrites()) {
+            if (session.isCloseAfterFlush()) {
+                disconnect(key);
+            } else if ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        } else {
+            // 套接字发送缓冲区已满，等待可写事件
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void processWriteRequests() {
+        ClientSession session;
+        while ((session = writeRequests.poll()) != null) {
+            SelectionKey key = session.getChannel().keyFor(selector);
+            if (key == null || !key.isValid()) {
+                continue;
+            }
+            try {
+                write(key);
+            } catch (IOException e) {
+                disconnect(key);
+            }
+        }
+    }
+
+    private void disconnect(SelectionKey key) {
+        key.cancel();
+        Object attachment = key.attachment();
+        if (attachment instanceof ClientSession) {
+            ((ClientSession) attachment).close();
+        }
+    }
+
+    /**
+     * 服务器入口
+     * 用法：java com.mud.game.server.MudServer [端口]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        MudServer server = new MudServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+    }
+}
@@ -0,0 +1,66 @@
+package com.mud.game.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 会话运行时
+ * 每个玩家会话运行在独立的线程上，游戏循环和战斗中的阻塞读取、等待都直接在该线程上进行。
+ * 运行环境支持虚拟线程（JDK 21+）时使用虚拟线程，阻塞时不占用平台线程；
+ * 否则退回到小栈的守护平台线程。
+ */
+public class SessionRuntime {
+    private static final String THREAD_PREFIX = "mud-session-";
+    // 平台线程退回方案的栈大小，游戏调用链很浅，无需默认的1MB
+    private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+
+    private final ThreadFactory virtualFactory;
+    private final AtomicLong counter;
+
+    public SessionRuntime() {
+        this.virtualFactory = createVirtualThreadFactory();
+        this.counter = new AtomicLong();
+    }
+
+    /**
+     * 在新的会话线程上运行任务
+     * @param task 会话任务
+     * @return 已启动的会话线程
+     */
+    public Thread start(Runnable task) {
+        Thread thread;
+        if (virtualFactory != null) {
+            thread = virtualFactory.newThread(task);
+        } else {
+            thread = new Thread(null, task, THREAD_PREFIX + counter.incrementAndGet(), PLATFORM_STACK_SIZE);
+            thread.setDaemon(true);
+        }
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * 是否使用虚拟线程运行会话
+     */
+    public boolean isVirtual() {
+        return virtualFactory != null;
+    }
+
+    /**
+     * 通过反射创建虚拟线程工厂，使代码在不支持虚拟线程的JDK上也能编译运行
+     * @return 虚拟线程工厂，不支持时返回null
+     */
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, THREAD_PREFIX, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 当前JDK不支持虚拟线程（或未启用预览特性）
+            return null;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * 被换出区域的房间状态临时文件
+ * 区域从内存中换出时，把其中有变化的房间（到访过、物品或NPC被改动过）的状态写入临时文件，
+ * 区域再次被访问时读回。读回后该区域占用的空间被回收，之后写入的区域优先复用空闲空间，
+ * 文件末尾的空闲空间直接截掉，所以文件大小只与当前换出的状态有关。
+ * 文件在 close 时删除，世界实例不再使用时必须关闭。
+ */
+final class AreaSpill implements Closeable {
+    private final RandomAccessFile file;
+    private final File path;
+    // 区域编号 -> {在文件中的位置, 长度}
+    private final Map<Integer, long[]> index;
+    // 空闲空间：位置 -> 长度，相邻的空闲块合并保存
+    private final TreeMap<Long, Long> free;
+
+    AreaSpill() throws IOException {
+        this.path = File.createTempFile("mud-area", ".spill");
+        this.file = new RandomAccessFile(path, "rw");
+        this.index = new HashMap<>();
+        this.free = new TreeMap<>();
+    }
+
+    /**
+     * 写入一个区域的房间状态（覆盖该区域之前写入的状态）
+     */
+    void write(int area, List<RoomState> states) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(states.toArray(new RoomState[0]));
+        }
+        long[] previous = index.remove(area);
+        if (previous != null) {
+            release(previous[0], previous[1]);
+        }
+        long offset = allocate(bytes.size());
+        file.seek(offset);
+        file.write(bytes.toByteArray());
+        index.put(area, new long[] {offset, bytes.size()});
+    }
+
+    /**
+     * 读回并移除一个区域的房间状态
+     * @return 房间状态，该区域没有写入过时返回空数组
+     */
+    RoomState[] read(int area) throws IOException {
+        long[] entry = index.remove(area);
+        if (entry == null) {
+            return new RoomState[0];
+        }
+        byte[] bytes = new byte[(int) entry[1]];
+        file.seek(entry[0]);
+        file.readFully(bytes);
+        release(entry[0], entry[1]);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (RoomState[]) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("无法读取区域状态: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 文件当前的大小（字节）
+     */
+    long size() throws IOException {
+        return file.length();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            file.close();
+        } finally {
+            if (!path.delete() && path.exists()) {
+                throw new IOException("无法删除 " + path);
+            }
+        }
+    }
+
+    /**
+     * 分配一段空间：优先使用第一个足够大的空闲块，没有时追加到文件末尾
+     */
+    private long allocate(long length) throws IOException {
+        for (Map.Entry<Long, Long> entry : free.entrySet()) {
+            long offset = entry.getKey();
+            long available = entry.getValue();
+            if (available >= length) {
+                free.remove(offset);
+                if (available > length) {
+                    free.put(offset + length, available - length);
+                }
+                return offset;
+            }
+        }
+        return file.length();
+    }
+
+    /**
+     * 回收一段空间，与相邻的空闲块合并；位于文件末尾时直接截短文件
+     */
+    private void release(long offset, long length) throws IOException {
+        Map.Entry<Long, Long> before = free.floorEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == offset) {
+            free.remove(before.getKey());
+            offset = before.getKey();
+            length += before.getValue();
+        }
+        Long after = free.remove(offset + length);
+        if (after != null) {
+            length += after;
+        }
+        if (offset + length >= file.length()) {
+            file.setLength(offset);
+        } else {
+            free.put(offset, length);
+        }
+    }
+
+    /**
+     * 一个房间相对模板发生了变化的状态
+     */
+    static final class RoomState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final int id;
+        final boolean visited;
+        final List<Item> items;
+        final NPC npc;
+
+        RoomState(Room room) {
+            this.id = room.getId();
+            this.visited = room.isVisited();
+            this.items = room.getItems();
+            this.npc = room.getNpc();
+        }
+
+        void applyTo(Room room) {
+            room.restoreState(visited, items, npc);
+        }
+    }
+}
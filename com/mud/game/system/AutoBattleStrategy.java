@@ -0,0 +1,57 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.Item;
+import com.mud.game.entity.ItemType;
+import java.util.List;
+
+/**
+ * 自动战斗策略（用于模拟战斗）
+ * 生命值低于阈值且背包里有药品时先治疗，否则攻击生命值最低的敌人，从不逃跑
+ */
+public class AutoBattleStrategy implements BattleStrategy {
+    private final double healThreshold;
+
+    public AutoBattleStrategy() {
+        this(0.35);
+    }
+
+    /**
+     * @param healThreshold 触发治疗的生命值比例
+     */
+    public AutoBattleStrategy(double healThreshold) {
+        this.healThreshold = healThreshold;
+    }
+
+    @Override
+    public Action chooseAction(Combatant player, List<Combatant> aliveEnemies) {
+        if (player.getHp() < player.getMaxHp() * healThreshold && findMedicine(player.getItems()) != null) {
+            return Action.USE_ITEM;
+        }
+        return Action.ATTACK;
+    }
+
+    @Override
+    public Combatant chooseTarget(Combatant player, List<Combatant> aliveEnemies) {
+        Combatant weakest = null;
+        for (Combatant enemy : aliveEnemies) {
+            if (weakest == null || enemy.getHp() < weakest.getHp()) {
+                weakest = enemy;
+            }
+        }
+        return weakest;
+    }
+
+    @Override
+    public Item chooseItem(Combatant player, List<Item> items) {
+        return findMedicine(items);
+    }
+
+    private static Item findMedicine(List<Item> items) {
+        for (Item item : items) {
+            if (item.getType() == ItemType.MEDICINE) {
+                return item;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,227 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.Player;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步存档服务（写后存储）
+ * 保存命令只在命令线程上把玩家编码为快照（几十微秒），实际的磁盘写入由后台I/O线程完成，
+ * 磁盘缓慢时不会阻塞玩家的输入循环。
+ *
+ * 同一存档在合并窗口内的多次保存只会写入最后一次的快照。
+ * 进程退出时通过关闭钩子写完所有未完成的存档。
+ */
+public class AutosaveService {
+    private static final long DEFAULT_WINDOW_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private static volatile AutosaveService instance;
+
+    private final DataManager dataManager;
+    private final long windowMillis;
+    private final ScheduledExecutorService ioExecutor;
+    private final Map<String, DataManager.SaveSnapshot> pending;
+
+    // 统计信息
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public AutosaveService(DataManager dataManager, long windowMillis) {
+        this.dataManager = dataManager;
+        this.windowMillis = windowMillis;
+        this.pending = new ConcurrentHashMap<>();
+        this.ioExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mud-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 获取全局存档服务，首次使用时创建并注册关闭钩子
+     */
+    public static AutosaveService getInstance() {
+        if (instance == null) {
+            synchronized (AutosaveService.class) {
+                if (instance == null) {
+                    AutosaveService service = new AutosaveService(new DataManager(), DEFAULT_WINDOW_MS);
+                    Runtime.getRuntime().addShutdownHook(new Thread(service::shutdown, "mud-autosave-flush"));
+                    instance = service;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 等待尚未落盘的存档写完（服务未启动时不做任何事）
+     * 读取、列出或删除存档之前调用，保证看到最近一次保存的结果
+     * @param saveFile 存档文件，为null时等待所有存档
+     */
+    public static void awaitPending(File saveFile) {
+        AutosaveService service = instance;
+        if (service == null) {
+            return;
+        }
+        if (saveFile == null) {
+            service.flush();
+        } else {
+            service.flush(keyOf(saveFile));
+        }
+    }
+
+    /**
+     * 指定存档目录下已提交但尚未写入磁盘的存档摘要（服务未启动时为空列表）
+     * 列出存档时与存档索引合并，不需要等待其他玩家的存档写完
+     */
+    public static List<SaveHeader> pendingHeaders(File saveDir) {
+        AutosaveService service = instance;
+        if (service == null || service.pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+        File directory = saveDir.getAbsoluteFile();
+        List<SaveHeader> headers = new ArrayList<>();
+        for (DataManager.SaveSnapshot snapshot : service.pending.values()) {
+            if (directory.equals(snapshot.getFile().getAbsoluteFile().getParentFile())) {
+                headers.add(snapshot.getHeader());
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * 等待写入的快照按存档文件区分，不同玩家目录下的同名存档互不影响
+     */
+    private static String keyOf(File saveFile) {
+        return saveFile.getAbsolutePath();
+    }
+
+    /**
+     * 提交一次保存，写入默认的存档目录
+     * @return 快照是否生成成功
+     */
+    public boolean submit(Player player, String saveName) {
+        return submit(dataManager, player, saveName);
+    }
+
+    /**
+     * 提交一次保存
+     * 在调用线程上生成快照，写入操作在合并窗口结束后由后台线程执行
+     * @param target 存档所属的存档管理器（决定存档写入的目录）
+     * @return 快照是否生成成功
+     */
+    public boolean submit(DataManager target, Player player, String saveName) {
+        DataManager.SaveSnapshot snapshot = target.createSnapshot(player, saveName);
+        if (snapshot == null) {
+            return false;
+        }
+        submitted.incrementAndGet();
+
+        // 已有等待写入的快照时直接替换，由已安排的写入任务写出最新的快照
+        String key = keyOf(snapshot.getFile());
+        if (pending.put(key, snapshot) == null) {
+            try {
+                ioExecutor.schedule(() -> writePending(key), windowMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 服务已关闭（进程正在退出），直接同步写入
+                writePending(key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 立即写入指定存档尚未落盘的快照并等待完成
+     */
+    private void flush(String key) {
+        if (!pending.containsKey(key)) {
+            return;
+        }
+        runOnIoThread(() -> writePending(key));
+    }
+
+    /**
+     * 立即写入所有尚未落盘的快照并等待完成
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        runOnIoThread(() -> {
+            for (String key : pending.keySet()) {
+                writePending(key);
+            }
+        });
+    }
+
+    /**
+     * 写完所有存档并停止后台线程
+     */
+    public void shutdown() {
+        flush();
+        ioExecutor.shutdown();
+        try {
+            ioExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 等待写入的存档数量
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 合并掉（未单独写入磁盘）的保存次数
+     */
+    public long getCoalescedCount() {
+        return submitted.get() - written.get() - failed.get() - pending.size();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    private void writePending(String key) {
+        DataManager.SaveSnapshot snapshot = pending.remove(key);
+        if (snapshot == null) {
+            // 已被提前刷新写入
+            return;
+        }
+        if (dataManager.writeSnapshot(snapshot)) {
+            written.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * 在I/O线程上执行任务并等待完成，保证与已安排的写入按顺序执行
+     */
+    private void runOnIoThread(Runnable task) {
+        Future<?> future;
+        try {
+            future = ioExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+            return;
+        }
+        try {
+            future.get(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("等待存档写入失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 数值平衡模拟器
+ * 对每个难度 × 敌对NPC × 玩家等级的组合，用 {@link BattleCore} 并行模拟大量无界面战斗，
+ * 统计胜率、击杀所需回合数和剩余生命值的分布，结果写入CSV文件。
+ *
+ * 每个组合的战斗按区间用 fork/join 拆分到所有CPU核心上，
+ * 每个区间使用独立的随机数流，种子只由总种子、组合编号和区间起点决定，相同种子的结果与线程调度无关。
+ *
+ * 用法：java com.mud.game.system.BalanceSimulator [每组战斗次数] [最高玩家等级] [输出文件] [随机种子]
+ */
+public class BalanceSimulator {
+    // 单个任务直接模拟的战斗数量上限，超过时继续拆分
+    private static final int BATCH_SIZE = 4096;
+    // 回合数直方图的上限，超过的计入最后一格
+    private static final int MAX_TRACKED_TURNS = 200;
+    // 模拟玩家携带的治疗药水数量（与新角色的初始物品一致）
+    private static final int STARTER_POTIONS = 1;
+    private static final long SEED_MIX = 0x9E3779B97F4A7C15L;
+
+    public static void main(String[] args) throws IOException {
+        int battles = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int maxLevel = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        File output = new File(args.length > 2 ? args[2] : "balance.csv");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        List<Scenario> scenarios = createScenarios(maxLevel);
+        System.out.println("=== 数值平衡模拟 ===");
+        System.out.printf("组合数: %d, 每组战斗: %d, 总战斗: %d, 随机种子: %d%n",
+                scenarios.size(), battles, (long) scenarios.size() * battles, seed);
+
+        long start = System.nanoTime();
+        List<Stats> results = run(scenarios, battles, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        writeCsv(output, scenarios, results);
+        System.out.printf("完成，用时 %.2f 秒（%.0f 场/秒，%d 个核心），结果已写入 %s%n",
+                seconds, (double) scenarios.size() * battles / seconds,
+                Runtime.getRuntime().availableProcessors(), output.getPath());
+    }
+
+    /**
+     * 并行模拟所有组合
+     * @param battles 每个组合的战斗次数
+     * @param seed 随机种子
+     * @return 与组合一一对应的统计结果
+     */
+    public static List<Stats> run(List<Scenario> scenarios, int battles, long seed) {
+        List<BattleTask> tasks = new ArrayList<>(scenarios.size());
+        for (int i = 0; i < scenarios.size(); i++) {
+            BattleTask task = new BattleTask(scenarios.get(i), seed + i * SEED_MIX, 0, battles);
+            task.fork();
+            tasks.add(task);
+        }
+        List<Stats> results = new ArrayList<>(tasks.size());
+        for (BattleTask task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * 所有难度 × 敌对NPC × 玩家等级（1 到 maxLevel）的组合，NPC数值取自各难度下的地图
+     */
+    public static List<Scenario> createScenarios(int maxLevel) {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (GameDifficulty difficulty : GameDifficulty.values()) {
+            List<NPC> roster = new ArrayList<>();
+            for (Room room : new MapManager(difficulty).getRooms()) {
+                NPC npc = room.getNpc();
+                if (npc != null && npc.isHostile()) {
+                    roster.add(npc);
+                }
+            }
+            roster.sort(Comparator.comparing(NPC::getName));
+
+            for (NPC npc : roster) {
+                for (int level = 1; level <= maxLevel; level++) {
+                    scenarios.add(new Scenario(difficulty, npc, createPlayer(difficulty, level)));
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    /**
+     * 创建指定等级的新角色（升级加成与 Player.gainExperience 一致）
+     */
+    private static Player createPlayer(GameDifficulty difficulty, int level) {
+        Player player = new Player("模拟玩家", 100, 10, 5, 1, 0, 100, difficulty);
+        int levelsGained = level - 1;
+        player.setMaxHp(player.getMaxHp() + difficulty.getPlayerHpByDifficulty(10) * levelsGained);
+        player.setHp(player.getMaxHp());
+        player.setAtk(player.getAtk() + difficulty.getPlayerAtkByDifficulty(2) * levelsGained);
+        player.setDef(player.getDef() + difficulty.getPlayerDefByDifficulty(1) * levelsGained);
+        player.setLevel(level);
+        for (int i = 0; i < STARTER_POTIONS; i++) {
+            player.getBackpack().add(new Item("治疗药水", "可以恢复生命的药水", 20, ItemType.MEDICINE));
+        }
+        return player;
+    }
+
+    private static void writeCsv(File output, List<Scenario> scenarios, List<Stats> results) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(output), StandardCharsets.UTF_8))) {
+            out.println("difficulty,npc,player_level,battles,win_rate,escape_rate,"
+                    + "turns_mean,turns_p10,turns_p50,turns_p90,turns_max,"
+                    + "hp_left_mean,hp_left_p10,hp_left_p50,hp_left_p90");
+            for (int i = 0; i < scenarios.size(); i++) {
+                Scenario scenario = scenarios.get(i);
+                Stats stats = results.get(i);
+                out.printf(Locale.ROOT, "%s,%s,%d,%d,%.4f,%.4f,%.2f,%d,%d,%d,%d,%.2f,%d,%d,%d%n",
+                        scenario.getDifficulty().name(), scenario.getEnemy().getName(), scenario.getPlayer().getLevel(),
+                        stats.getBattles(), stats.getWinRate(), stats.getEscapeRate(),
+                        stats.getMeanTurns(), stats.getTurnsPercentile(0.1), stats.getTurnsPercentile(0.5),
+                        stats.getTurnsPercentile(0.9), stats.getMaxTurns(),
+                        stats.getMeanHpLeft(), stats.getHpLeftPercentile(0.1), stats.getHpLeftPercentile(0.5),
+                        stats.getHpLeftPercentile(0.9));
+            }
+        }
+    }
+
+    /**
+     * 一个模拟组合：难度、敌人和玩家（都只作为模板，模拟时不会被修改）
+     */
+    public static class Scenario {
+        private final GameDifficulty difficulty;
+        private final NPC enemy;
+        private final Player player;
+
+        public Scenario(GameDifficulty difficulty, NPC enemy, Player player) {
+            this.difficulty = difficulty;
+            this.enemy = enemy;
+            this.player = player;
+        }
+
+        public GameDifficulty getDifficulty() {
+            return difficulty;
+        }
+
+        public NPC getEnemy() {
+            return enemy;
+        }
+
+        public Player getPlayer() {
+            return player;
+        }
+
+        BattleResult simulate(BattleStrategy strategy, RandomStream random) {
+            Combatant playerSide = Combatant.of(player, new ArrayList<>(player.getBackpack()));
+            List<Combatant> enemySide = Collections.singletonList(Combatant.of(enemy));
+            return new BattleCore(playerSide, enemySide, strategy, BattleEventSink.NONE, random).run();
+        }
+    }
+
+    /**
+     * 模拟一个组合中 [from, to) 区间的战斗，区间过大时拆成两半并行执行
+     */
+    private static class BattleTask extends RecursiveTask<Stats> {
+        private static final long serialVersionUID = 1L;
+
+        private final Scenario scenario;
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        BattleTask(Scenario scenario, long seed, int from, int to) {
+            this.scenario = scenario;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from > BATCH_SIZE) {
+                int mid = (from + to) >>> 1;
+                BattleTask left = new BattleTask(scenario, seed, from, mid);
+                BattleTask right = new BattleTask(scenario, seed, mid, to);
+                left.fork();
+                Stats stats = right.compute();
+                stats.merge(left.join());
+                return stats;
+            }
+
+            RandomStream random = RandomStreams.replay("simulation", seed ^ (from * SEED_MIX));
+            BattleStrategy strategy = new AutoBattleStrategy();
+            Stats stats = new Stats();
+            for (int i = from; i < to; i++) {
+                stats.add(scenario.simulate(strategy, random));
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * 一个组合的统计结果
+     * 回合数和剩余生命值（百分比）用直方图记录，合并时逐格相加
+     */
+    public static class Stats {
+        private int battles;
+        private int wins;
+        private int escapes;
+        private long totalTurns;
+        private long totalHpLeft;
+        // 胜利时的回合数分布
+        private final int[] turnHistogram = new int[MAX_TRACKED_TURNS + 1];
+        // 胜利时剩余生命值百分比（0-100）的分布
+        private final int[] hpLeftHistogram = new int[101];
+
+        void add(BattleResult result) {
+            battles++;
+            if (result.getOutcome() == BattleResult.Outcome.ESCAPED) {
+                escapes++;
+            }
+            if (!result.isVictory()) {
+                return;
+            }
+            wins++;
+            totalTurns += result.getTurns();
+            turnHistogram[Math.min(result.getTurns(), MAX_TRACKED_TURNS)]++;
+            int hpLeft = Math.max(0, result.getPlayerHp()) * 100 / result.getPlayerMaxHp();
+            totalHpLeft += hpLeft;
+            hpLeftHistogram[hpLeft]++;
+        }
+
+        void merge(Stats other) {
+            battles += other.battles;
+            wins += other.wins;
+            escapes += other.escapes;
+            totalTurns += other.totalTurns;
+            totalHpLeft += other.totalHpLeft;
+            for (int i = 0; i < turnHistogram.length; i++) {
+                turnHistogram[i] += other.turnHistogram[i];
+            }
+            for (int i = 0; i < hpLeftHistogram.length; i++) {
+                hpLeftHistogram[i] += other.hpLeftHistogram[i];
+            }
+        }
+
+        public int getBattles() {
+            return battles;
+        }
+
+        public double getWinRate() {
+            return battles > 0 ? (double) wins / battles : 0;
+        }
+
+        public double getEscapeRate() {
+            return battles > 0 ? (double) escapes / battles : 0;
+        }
+
+        /**
+         * 胜利时的平均回合数
+         */
+        public double getMeanTurns() {
+            return wins > 0 ? (double) totalTurns / wins : 0;
+        }
+
+        public int getTurnsPercentile(double p) {
+            return percentile(turnHistogram, p);
+        }
+
+        public int getMaxTurns() {
+            for (int i = turnHistogram.length - 1; i >= 0; i--) {
+                if (turnHistogram[i] > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * 胜利时剩余生命值百分比的平均值
+         */
+        public double getMeanHpLeft() {
+            return wins > 0 ? (double) totalHpLeft / wins : 0;
+        }
+
+        public int getHpLeftPercentile(double p) {
+            return percentile(hpLeftHistogram, p);
+        }
+
+        private int percentile(int[] histogram, double p) {
+            if (wins == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(p * wins);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank && histogram[i] > 0) {
+                    return i;
+                }
+            }
+            return histogram.length - 1;
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * 战斗核心（无界面）
+ * 只负责战斗规则的结算：玩家方的行动由 {@link BattleStrategy} 决定，
+ * 战斗过程通过 {@link BattleEventSink} 报告，不读取输入、不打印、不等待。
+ * 所有随机数都来自构造时传入的生成器，相同的种子和决策会得到相同的战斗过程。
+ * 临时攻防加成保存在 {@link ModifierStack} 中，在回合结束时撤销，战斗结束时全部清除。
+ *
+ * 每个实例对应一场战斗，不能重复使用。
+ */
+public class BattleCore {
+    // 防御姿态提供的临时防御力
+    private static final int DEFEND_BONUS = 4;
+    // 敌人削弱技能降低临时防御力的下限
+    private static final int MIN_TEMP_DEF = -10;
+
+    private final Combatant player;
+    private final List<Combatant> enemies;
+    private final BattleStrategy strategy;
+    private final BattleEventSink sink;
+    private final RandomGenerator random;
+    private final ModifierStack modifiers;
+    private int turn;
+
+    public BattleCore(Combatant player, List<Combatant> enemies, BattleStrategy strategy,
+                      BattleEventSink sink, RandomGenerator random) {
+        this.player = player;
+        this.enemies = enemies;
+        this.strategy = strategy;
+        this.sink = sink;
+        this.random = random;
+        this.modifiers = new ModifierStack();
+    }
+
+    /**
+     * 进行战斗直到一方倒下或玩家逃跑
+     */
+    public BattleResult run() {
+        sink.battleStarted(enemies);
+
+        boolean escaped = false;
+        turn = 0;
+        while (player.isAlive() && hasAliveEnemies()) {
+            turn++;
+            sink.turnStarted(turn, player, enemies);
+
+            // 处理状态效果
+            processStatusEffects(player);
+            for (Combatant enemy : enemies) {
+                if (enemy.isAlive()) {
+                    processStatusEffects(enemy);
+                }
+            }
+
+            if (!player.isAlive()) break;
+
+            // 检查玩家是否被眩晕
+            if (player.hasStatus(BattleStatus.STUN)) {
+                sink.message("\n😵 你处于眩晕状态，无法行动！");
+            } else if (!playerTurn()) {
+                escaped = true;
+                break;
+            }
+
+            if (!player.isAlive() || !hasAliveEnemies()) break;
+
+            // 敌人回合
+            enemiesTurn();
+
+            endTurn(player);
+            for (Combatant enemy : enemies) {
+                if (enemy.isAlive()) {
+                    endTurn(enemy);
+                }
+            }
+            modifiers.expire(turn);
+            sink.turnEnded(turn);
+        }
+        // 临时加成只在战斗中有效
+        modifiers.clear();
+
+        BattleResult.Outcome outcome = escaped ? BattleResult.Outcome.ESCAPED
+                : player.isAlive() ? BattleResult.Outcome.VICTORY : BattleResult.Outcome.DEFEAT;
+        int defeated = 0;
+        for (Combatant enemy : enemies) {
+            if (!enemy.isAlive()) {
+                defeated++;
+            }
+        }
+        // 使用独立随机数流的战斗记下流的种子，用于复现
+        long seed = random instanceof RandomStream ? ((RandomStream) random).getSeed() : 0;
+        return new BattleResult(outcome, turn, player.getHp(), player.getMaxHp(), defeated, seed);
+    }
+
+    /**
+     * 玩家回合
+     * @return 战斗是否继续（逃跑成功时返回false）
+     */
+    private boolean playerTurn() {
+        while (true) {
+            switch (strategy.chooseAction(player, getAliveEnemies())) {
+                case ATTACK:
+                    playerAttack();
+                    return true;
+                case DEFEND:
+                    playerDefend();
+                    return true;
+                case USE_ITEM:
+                    if (useItem()) {
+                        return true;
+                    }
+                    // 物品无法在战斗中使用，重新选择行动
+                    break;
+                case ESCAPE:
+                    return !tryEscape();
+                default:
+                    return true;
+            }
+        }
+    }
+
+    // 玩家攻击
+    private void playerAttack() {
+        sink.message("\n⚔️ 选择攻击目标：");
+        Combatant target = strategy.chooseTarget(player, getAliveEnemies());
+
+        if (target == null) {
+            sink.message("❌ 无效目标！");
+            return;
+        }
+
+        // 闪避判定
+        if (random.nextDouble() < target.getDodgeRate()) {
+            sink.attackDodged(player, target);
+            return;
+        }
+
+        // 暴击判定
+        boolean isCrit = random.nextDouble() < player.getCritRate();
+        double damageMultiplier = isCrit ? player.getCritDamage() : 1.0;
+
+        // 基础伤害计算
+        int baseDamage = Math.max(1, player.getAtk() + player.getTempAtk() - target.getDef() - target.getTempDef());
+        int damage = (int) (baseDamage * damageMultiplier);
+
+        // 属性克制
+        double elementModifier = player.getElementType().multiplierAgainst(target.getElementType());
+        damage = (int) (damage * elementModifier);
+
+        // 执行攻击
+        target.takeDamage(damage);
+        if (target.isAlive()) {
+            sink.message(target.getName() + "受到了" + damage + "点伤害，剩余生命值：" + target.getHp());
+        } else {
+            sink.message(target.getName() + "被击败了！");
+        }
+        sink.attackLanded(player, target, damage, isCrit);
+
+        if (elementModifier > 1.2) {
+            sink.message("🔥 属性克制！伤害提升！");
+        } else if (elementModifier < 0.8) {
+            sink.message("❄️ 属性被克制！伤害降低！");
+        }
+
+        // 添加随机状态效果（5%概率）
+        if (random.nextDouble() < 0.05) {
+            applyRandomStatusEffect(target);
+        }
+    }
+
+    /**
+     * 使用物品
+     * @return 是否消耗了本回合（物品无法在战斗中使用时返回false）
+     */
+    private boolean useItem() {
+        List<Item> items = player.getItems();
+        if (items.isEmpty()) {
+            sink.message("❌ 背包是空的！");
+            return true;
+        }
+
+        sink.message("\n💊 选择要使用的物品：");
+        Item item = strategy.chooseItem(player, items);
+        if (item == null) {
+            return true;
+        }
+        return applyItem(item);
+    }
+
+    /**
+     * 对玩家方使用物品（也供战斗外的物品使用接口调用）
+     * @return 物品是否可以在战斗中使用
+     */
+    public boolean applyItem(Item item) {
+        List<Item> items = player.getItems();
+        switch (item.getType()) {
+            case MEDICINE:
+                int oldHp = player.getHp();
+                int newHp = Math.min(player.getHp() + (int) Math.round(item.getEffect()), player.getMaxHp());
+                player.setHp(newHp);
+                sink.message("💚 使用了" + item.getName() + "，生命值：" + oldHp + " → " + newHp + " (+" + item.getEffect() + ")");
+                items.remove(item);
+                return true;
+
+            case BUFF_POTION:
+                StatusEffect buffEffect = new StatusEffect(BattleStatus.ATTACK_BOOST, (int) Math.round(item.getEffect() / 5));
+                addPlayerEffect(buffEffect);
+                sink.message("⚔️ 使用了" + item.getName() + "，获得攻击强化效果！");
+                items.remove(item);
+                return true;
+
+            case ANTIDOTE:
+                // 清除负面状态
+                player.getEffectTable().removeAll(StatusEffectTable.NEGATIVE_MASK);
+                sink.message("💊 使用了" + item.getName() + "，清除了所有负面状态！");
+                items.remove(item);
+                return true;
+
+            case POISON:
+                sink.message("☠️ 选择要施毒的目标：");
+                Combatant target = strategy.chooseTarget(player, getAliveEnemies());
+                if (target != null) {
+                    StatusEffect poisonEffect = new StatusEffect(BattleStatus.POISON, (int) Math.round(item.getEffect() / 3));
+                    target.addStatusEffect(poisonEffect);
+                    sink.message("☠️ " + target.getName() + "中毒了！");
+                    items.remove(item);
+                }
+                return true;
+
+            default:
+                sink.message("❌ " + item.getName() + "无法在战斗中使用！");
+                return false;
+        }
+    }
+
+    /**
+     * 逃跑
+     * @return 是否逃跑成功
+     */
+    private boolean tryEscape() {
+        sink.message("\n🏃 尝试逃跑...");
+
+        // 基础逃跑成功率：50% + 玩家等级 * 2% - 敌人平均等级 * 3%
+        double escapeChance = 0.5 + (player.getLevel() * 0.02) - (getAverageEnemyLevel() * 0.03);
+        escapeChance = Math.max(0.1, Math.min(0.9, escapeChance)); // 限制在10%-90%之间
+
+        if (random.nextDouble() < escapeChance) {
+            sink.message("💨 成功逃跑！");
+            return true;
+        }
+        sink.message("❌ 逃跑失败！敌人追了上来！");
+        return false;
+    }
+
+    // 防御：本回合内提升防御力，回合结束时撤销
+    private void playerDefend() {
+        modifiers.push(player, 0, DEFEND_BONUS, turn);
+        sink.message("🛡️ 你采取了防御姿态，本回合防御力提升" + DEFEND_BONUS + "点！");
+    }
+
+    private void addPlayerEffect(StatusEffect effect) {
+        player.addStatusEffect(effect);
+        sink.message("✨ " + player.getName() + "获得了" + effect.getStatus().getName() + "效果！");
+    }
+
+    // 回合开始时处理状态效果，攻防修正在本回合内有效
+    private void processStatusEffects(Combatant entity) {
+        StatusEffectTable effects = entity.getEffectTable();
+        for (int mask = effects.getMask(); mask != 0; mask &= mask - 1) {
+            BattleStatus status = StatusEffectTable.lowestStatus(mask);
+            int intensity = effects.getIntensity(status);
+            String text = StatusEffect.apply(status, intensity, entity);
+            if (text != null) {
+                sink.message(text);
+            }
+            modifiers.push(entity, StatusEffect.atkModifier(status, intensity),
+                    StatusEffect.defModifier(status, intensity), turn);
+        }
+    }
+
+    // 回合结束时减少状态效果的剩余回合，移除到期的效果
+    private void endTurn(Combatant entity) {
+        for (int expired = entity.getEffectTable().tick(); expired != 0; expired &= expired - 1) {
+            BattleStatus status = StatusEffectTable.lowestStatus(expired);
+            sink.message("⏰ " + entity.getName() + "的" + status.getName() + "效果结束了");
+        }
+    }
+
+    // 应用随机状态效果
+    private void applyRandomStatusEffect(Combatant target) {
+        BattleStatus[] possibleEffects = {
+            BattleStatus.POISON, BattleStatus.BLEED, BattleStatus.BURN
+        };
+
+        BattleStatus randomEffect = possibleEffects[random.nextInt(possibleEffects.length)];
+        target.addStatusEffect(new StatusEffect(randomEffect, 1));
+
+        sink.message("✨ " + target.getName() + "获得了" + randomEffect.getName() + "效果！");
+    }
+
+    // 敌人回合
+    private void enemiesTurn() {
+        for (Combatant enemy : enemies) {
+            if (enemy.isAlive() && !enemy.hasStatus(BattleStatus.STUN)) {
+                enemyAttack(enemy);
+                if (!player.isAlive()) {
+                    return;
+                }
+            } else if (enemy.hasStatus(BattleStatus.STUN)) {
+                sink.message("\n😵 " + enemy.getName() + "处于眩晕状态，无法行动！");
+            }
+        }
+    }
+
+    // 敌人攻击
+    private void enemyAttack(Combatant enemy) {
+        sink.message("\n👹 " + enemy.getName() + "的回合：");
+
+        // 敌人AI选择攻击类型
+        int attackType = random.nextInt(100);
+
+        if (attackType < 60) { // 60% 普通攻击
+            performNormalEnemyAttack(enemy);
+        } else if (attackType < 85) { // 25% 强力攻击
+            performStrongEnemyAttack(enemy);
+        } else { // 15% 特殊技能
+            performSpecialEnemyAttack(enemy);
+        }
+    }
+
+    // 普通敌人攻击
+    private void performNormalEnemyAttack(Combatant enemy) {
+        // 闪避判定
+        if (random.nextDouble() < player.getDodgeRate()) {
+            sink.message("💨 " + player.getName() + "闪避了" + enemy.getName() + "的攻击！");
+            return;
+        }
+
+        // 暴击判定
+        boolean isCrit = random.nextDouble() < enemy.getCritRate();
+        double damageMultiplier = isCrit ? enemy.getCritDamage() : 1.0;
+
+        int baseDamage = Math.max(1, enemy.getAtk() - player.getDef() - player.getTempDef());
+        int damage = (int) (baseDamage * damageMultiplier);
+
+        player.setHp(player.getHp() - damage);
+        sink.attackLanded(enemy, player, damage, isCrit);
+    }
+
+    // 强力敌人攻击
+    private void performStrongEnemyAttack(Combatant enemy) {
+        sink.message("⚠️ " + enemy.getName() + "开始蓄力...");
+
+        // 闪避判定（降低闪避率）
+        if (random.nextDouble() < player.getDodgeRate() * 0.7) {
+            sink.message("💨 " + player.getName() + "勉强闪避了强力攻击！");
+            return;
+        }
+
+        int damage = Math.max(2, (enemy.getAtk() * 3 / 2) - player.getDef() - player.getTempDef());
+        player.setHp(player.getHp() - damage);
+
+        sink.message("🔥 " + enemy.getName() + "的强力攻击对你造成了" + damage + "点伤害！");
+    }
+
+    // 特殊敌人攻击
+    private void performSpecialEnemyAttack(Combatant enemy) {
+        sink.message("✨ " + enemy.getName() + "正在聚集能量...");
+
+        int specialType = random.nextInt(3);
+        switch (specialType) {
+            case 0: // 降低防御
+                int defenseReduction = Math.max(0, Math.min(3, player.getTempDef() - MIN_TEMP_DEF));
+                modifiers.push(player, 0, -defenseReduction, ModifierStack.UNTIL_BATTLE_END);
+                sink.message("⚡ 特殊技能：你的防御力降低了" + defenseReduction + "点！");
+                break;
+
+            case 1: // 添加负面状态
+                BattleStatus[] debuffs = {BattleStatus.POISON, BattleStatus.BLEED, BattleStatus.WEAK};
+                BattleStatus randomDebuff = debuffs[random.nextInt(debuffs.length)];
+                addPlayerEffect(new StatusEffect(randomDebuff, 1));
+                sink.message("⚡ 特殊技能：你获得了" + randomDebuff.getName() + "效果！");
+                break;
+
+            case 2: // 百分比伤害
+                int percentageDamage = player.getHp() / 5; // 20%最大生命值
+                player.setHp(player.getHp() - percentageDamage);
+                sink.message("⚡ 特殊技能：" + enemy.getName() + "造成了你最大生命值20%的伤害（" + percentageDamage + "点）！");
+                break;
+        }
+    }
+
+    private List<Combatant> getAliveEnemies() {
+        List<Combatant> alive = new ArrayList<>(enemies.size());
+        for (Combatant enemy : enemies) {
+            if (enemy.isAlive()) {
+                alive.add(enemy);
+            }
+        }
+        return alive;
+    }
+
+    // 检查是否有存活的敌人
+    private boolean hasAliveEnemies() {
+        for (Combatant enemy : enemies) {
+            if (enemy.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 获取敌人平均等级
+    private double getAverageEnemyLevel() {
+        int totalLevel = 0;
+        int aliveCount = 0;
+        for (Combatant enemy : enemies) {
+            if (enemy.isAlive()) {
+                totalLevel += enemy.getLevel();
+                aliveCount++;
+            }
+        }
+        return aliveCount > 0 ? (double) totalLevel / aliveCount : 1;
+    }
+}
@@ -4,21 +4,33 @@ import com.mud.game.entity.Player;
 import com.mud.game.entity.NPC;
 import com.mud.game.entity.Item;
 import java.util.List;
-import java.util.Scanner;
-import com.mud.game.system.RandomUtil;
 
 public class BattleEngine {
-    private Scanner scanner;
+    // 防御姿态提供的临时防御力
+    private static final int DEFEND_BONUS = 2;
+    
+    // 战斗中的临时攻防加成，回合结束时撤销
+    private final ModifierStack modifiers;
+    private int turn;
+    // 本场战斗的随机数流，种子随战斗结果写入日志
+    private RandomStream random;
     
     public BattleEngine() {
-        this.scanner = new Scanner(System.in);
+        this.modifiers = new ModifierStack();
     }
     
-    public void startBattle(Player player, NPC enemy) {
+    public BattleResult startBattle(Player player, NPC enemy) {
         System.out.println("\n⚔️  战斗开始！你遇到了 " + enemy.getName() + "！");
         
+        // 每场战斗使用独立的随机数流，攻击、闪避、暴击和逃跑都从中取数，可按种子复现
+        random = RandomStreams.open("battle");
+        
         // 战斗主循环
+        turn = 0;
         while (player.getHp() > 0 && enemy.getHp() > 0) {
+            // 上一回合的临时加成到期
+            modifiers.expire(turn);
+            turn++;
             displayBattleStatus(player, enemy);
             
             // 玩家回合 - 选择行动
@@ -42,7 +54,8 @@ public class BattleEngine {
                     
                 case 4: // 逃跑
                     if (tryEscape(player, enemy)) {
-                        return; // 成功逃跑，结束战斗
+                        modifiers.clear();
+                        return finish(BattleResult.Outcome.ESCAPED, player, enemy); // 成功逃跑，结束战斗
                     } else {
                         System.out.println("逃跑失败！");
                         // 逃跑失败，敌人获得额外攻击机会
@@ -64,19 +77,26 @@ public class BattleEngine {
             }
             
             // 回合间隔
-            try {
-                Thread.sleep(1500); // 1.5秒延迟增加紧张感
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(1500); // 1.5秒延迟增加紧张感
         }
+        modifiers.clear();
         
-        // 战斗结果处理
+        // 战斗结果处理（失败时游戏结束，先记下结果）
         if (player.getHp() > 0) {
+            BattleResult result = finish(BattleResult.Outcome.VICTORY, player, enemy);
             handleVictory(player, enemy);
-        } else {
-            handleDefeat(player);
+            return result;
         }
+        BattleResult result = finish(BattleResult.Outcome.DEFEAT, player, enemy);
+        handleDefeat(player);
+        return result;
+    }
+    
+    private BattleResult finish(BattleResult.Outcome outcome, Player player, NPC enemy) {
+        BattleResult result = new BattleResult(outcome, turn, player.getHp(), player.getMaxHp(),
+                outcome == BattleResult.Outcome.VICTORY ? 1 : 0, random.getSeed());
+        result.log(player.getName() + " 对 " + enemy.getName());
+        return result;
     }
     
     private void displayBattleStatus(Player player, NPC enemy) {
@@ -122,7 +142,7 @@ public class BattleEngine {
             System.out.print("> ");
             
             try {
-                String input = scanner.nextLine().trim();
+                String input = GameConsole.readLine().trim();
                 int choice = Integer.parseInt(input);
                 
                 if (choice >= 1 && choice <= 4) {
@@ -138,18 +158,9 @@ public class BattleEngine {
     
     private void playerDefend(Player player) {
         System.out.println("你采取了防御姿态！");
-        player.setDef(player.getDef() + 2); // 临时提升防御
+        // 临时提升防御，本回合结束时恢复
+        modifiers.push(player, 0, DEFEND_BONUS, turn);
         System.out.println("防御力临时提升！");
-        
-        // 下一回合开始时恢复原始防御力
-        new Thread(() -> {
-            try {
-                Thread.sleep(2000); // 2秒后恢复
-                player.setDef(player.getDef() - 2);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }).start();
     }
     
     private boolean useItem(Player player) {
@@ -167,7 +178,7 @@ public class BattleEngine {
         System.out.print("选择要使用的物品：");
         
         try {
-            String input = scanner.nextLine().trim();
+            String input = GameConsole.readLine().trim();
             int choice = Integer.parseInt(input);
             
             if (choice == 0) {
@@ -205,7 +216,7 @@ public class BattleEngine {
                 System.out.print("🌟 治疗特效：");
                 for (int i = 0; i < 5; i++) {
                     System.out.print("✨ ");
-                    try { Thread.sleep(200); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                    PacingTimeline.pause(200);
                 }
                 System.out.println();
                 
@@ -226,7 +237,7 @@ public class BattleEngine {
                 System.out.print("⚡ 武器特效：");
                 for (int i = 0; i < 5; i++) {
                     System.out.print("💥 ");
-                    try { Thread.sleep(150); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                    PacingTimeline.pause(150);
                 }
                 System.out.println();
                 
@@ -251,14 +262,10 @@ public class BattleEngine {
         
         for (String effect : attackEffects) {
             System.out.println(effect);
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(500);
         }
         
-        player.performAttack(enemy);
+        player.performAttack(enemy, random);
         
         if (enemy.getHp() > 0) {
             System.out.println("🩸 " + enemy.getName() + "剩余生命值：" + enemy.getHp());
@@ -269,39 +276,39 @@ public class BattleEngine {
         System.out.println("\n👹 " + enemy.getName() + "的回合：");
         
         // 敌人攻击选择（简单AI）
-            int attackType = RandomUtil.nextInt(100);
+        int attackType = random.nextInt(100);
         
         if (attackType < 70) { // 70% 概率普通攻击
             System.out.println("🐺 " + enemy.getName() + "扑了过来！");
-            try { Thread.sleep(300); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            PacingTimeline.pause(300);
             
             int baseDamage = Math.max(1, enemy.getAtk() - 3);
-            int randomFactor = RandomUtil.nextInt(1, 6); // 1-5的随机因子
+            int randomFactor = random.nextInt(1, 6); // 1-5的随机因子
             int damage = baseDamage + randomFactor;
             
             // 考虑玩家防御
-            damage = Math.max(1, damage - player.getDef() / 2);
+            damage = Math.max(1, damage - (player.getDef() + player.getTempDef()) / 2);
             
             player.setHp(player.getHp() - damage);
             System.out.println("💥 " + enemy.getName() + "对你造成了" + damage + "点伤害！");
             
         } else if (attackType < 85) { // 15% 概率强力攻击
             System.out.println("⚠️ " + enemy.getName() + "开始蓄力...");
-            try { Thread.sleep(500); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            PacingTimeline.pause(500);
             System.out.println("🔥 强力攻击！");
             
-            int damage = Math.max(2, (enemy.getAtk() * 3 / 2) - player.getDef() / 2);
+            int damage = Math.max(2, (enemy.getAtk() * 3 / 2) - (player.getDef() + player.getTempDef()) / 2);
             player.setHp(player.getHp() - damage);
             System.out.println("💥 " + enemy.getName() + "的强力攻击对你造成了" + damage + "点伤害！");
             
         } else { // 15% 概率特殊效果
             System.out.println("✨ " + enemy.getName() + "正在聚集能量...");
-            try { Thread.sleep(700); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            PacingTimeline.pause(700);
             System.out.println("⚡ 特殊技能释放！");
             
             // 特殊效果：降低玩家防御
             int defenseReduction = 2;
-            player.setDef(Math.max(0, player.getDef() - defenseReduction));
+            modifiers.push(player, 0, -defenseReduction, ModifierStack.UNTIL_BATTLE_END);
             System.out.println("🛡️ 你的防御力降低了" + defenseReduction + "点！");
         }
         
@@ -335,7 +342,7 @@ public class BattleEngine {
         enemy.setHp(0);
         
         // 更新任务进度
-        player.updateTaskProgress("kill", enemy.getName(), 1);
+        player.publishEvent(GameEvent.Type.KILL, enemy.getName());
         
         // 胜利音效（模拟）
         System.out.println("\n🎵 胜利的音乐响起...");
@@ -350,11 +357,14 @@ public class BattleEngine {
         System.out.println("╚════════════════════════════════════╝");
         System.out.println("\n🎵 悲伤的音乐响起...");
         System.out.println("\n游戏结束！");
-        System.exit(0);
+        GameConsole.exit(0);
     }
     
     // 逃跑机制
     public boolean tryEscape(Player player, NPC enemy) {
+        if (random == null) {
+            random = RandomStreams.open("battle");
+        }
         System.out.println("你尝试逃跑...");
         
         // 基于玩家和敌人的属性计算逃跑成功率
@@ -362,7 +372,7 @@ public class BattleEngine {
         escapeChance += (player.getDef() - enemy.getAtk()) * 2; // 防御优势增加逃跑率
         escapeChance = Math.max(20, Math.min(80, escapeChance)); // 限制在20%-80%之间
         
-        if (RandomUtil.isTriggered(escapeChance / 100.0)) {
+        if (random.nextDouble() < escapeChance / 100.0) {
             System.out.println("逃跑成功！");
             return true;
         } else {
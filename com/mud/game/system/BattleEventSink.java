@@ -0,0 +1,49 @@
+package com.mud.game.system;
+
+import java.util.List;
+
+/**
+ * 战斗输出
+ * 战斗核心通过它报告战斗过程，本身不打印任何内容。
+ * 所有方法默认不做任何事，{@link #NONE} 用于无人观看的模拟战斗。
+ */
+public interface BattleEventSink {
+    BattleEventSink NONE = new BattleEventSink() {
+    };
+
+    /**
+     * 战斗开始
+     */
+    default void battleStarted(List<Combatant> enemies) {
+    }
+
+    /**
+     * 回合开始（状态效果结算之前）
+     */
+    default void turnStarted(int turn, Combatant player, List<Combatant> enemies) {
+    }
+
+    /**
+     * 攻击命中
+     */
+    default void attackLanded(Combatant attacker, Combatant target, int damage, boolean critical) {
+    }
+
+    /**
+     * 玩家的攻击被闪避
+     */
+    default void attackDodged(Combatant attacker, Combatant target) {
+    }
+
+    /**
+     * 战斗过程中的文字信息
+     */
+    default void message(String text) {
+    }
+
+    /**
+     * 回合结束
+     */
+    default void turnEnded(int turn) {
+    }
+}
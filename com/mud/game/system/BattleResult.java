@@ -0,0 +1,80 @@
+package com.mud.game.system;
+
+/**
+ * 一场战斗的结果
+ */
+public class BattleResult {
+    public enum Outcome {
+        VICTORY, DEFEAT, ESCAPED
+    }
+
+    private final Outcome outcome;
+    private final int turns;
+    private final int playerHp;
+    private final int playerMaxHp;
+    private final int enemiesDefeated;
+    private final long seed;
+
+    /**
+     * @param seed 本场战斗随机数流的种子，用 {@code RandomStreams.replay("battle", seed)} 可以复现战斗过程
+     */
+    public BattleResult(Outcome outcome, int turns, int playerHp, int playerMaxHp, int enemiesDefeated, long seed) {
+        this.outcome = outcome;
+        this.turns = turns;
+        this.playerHp = playerHp;
+        this.playerMaxHp = playerMaxHp;
+        this.enemiesDefeated = enemiesDefeated;
+        this.seed = seed;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isVictory() {
+        return outcome == Outcome.VICTORY;
+    }
+
+    /**
+     * 战斗进行的回合数
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getPlayerHp() {
+        return playerHp;
+    }
+
+    public int getPlayerMaxHp() {
+        return playerMaxHp;
+    }
+
+    public int getEnemiesDefeated() {
+        return enemiesDefeated;
+    }
+
+    /**
+     * 本场战斗随机数流的种子
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * 把战斗结果和种子写入服务器日志，需要复现战斗时按种子重放（见 {@link RandomStreams#isLogEnabled()}）
+     * @param participants 参战双方的描述
+     */
+    public void log(String participants) {
+        if (!RandomStreams.isLogEnabled()) {
+            return;
+        }
+        System.err.println("战斗记录: " + participants + " " + this);
+    }
+
+    @Override
+    public String toString() {
+        return outcome + " 回合:" + turns + " 剩余生命:" + playerHp + "/" + playerMaxHp
+                + " 种子:" + Long.toHexString(seed);
+    }
+}
@@ -0,0 +1,34 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.Item;
+import java.util.List;
+
+/**
+ * 玩家方的战斗决策
+ * 交互式战斗由控制台读取玩家输入，模拟战斗使用自动策略
+ */
+public interface BattleStrategy {
+    enum Action {
+        ATTACK, DEFEND, USE_ITEM, ESCAPE
+    }
+
+    /**
+     * 选择本回合的行动
+     * @param player 玩家方参与者
+     * @param aliveEnemies 存活的敌人
+     */
+    Action chooseAction(Combatant player, List<Combatant> aliveEnemies);
+
+    /**
+     * 选择攻击或施毒的目标
+     * @return 目标，返回null表示无效目标
+     */
+    Combatant chooseTarget(Combatant player, List<Combatant> aliveEnemies);
+
+    /**
+     * 选择要使用的物品
+     * @param items 背包中的物品（不为空）
+     * @return 物品，返回null表示放弃使用
+     */
+    Item chooseItem(Combatant player, List<Item> items);
+}
@@ -0,0 +1,273 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 战斗参与者
+ * 战斗开始时从玩家或NPC复制一份战斗属性，战斗核心只修改这份副本，
+ * 不会打印信息，也不会触发玩家死亡时的游戏结束流程。
+ * 战斗结束后由调用方通过 {@link #writeBack()} 把结果写回原对象（模拟战斗则直接丢弃）。
+ */
+public class Combatant implements BattleEntity {
+    private final BattleEntity source;
+    private final String name;
+    private final int level;
+    private final List<Item> items;
+    private int hp;
+    private int maxHp;
+    private int atk;
+    private int def;
+    private int tempAtk;
+    private int tempDef;
+    private double dodgeRate;
+    private double critRate;
+    private double critDamage;
+    private Element element;
+    private final StatusEffectTable effects;
+    private boolean alive;
+
+    private Combatant(BattleEntity source, int level, List<Item> items) {
+        this.source = source;
+        this.name = source.getName();
+        this.level = level;
+        this.items = items;
+        this.hp = source.getHp();
+        this.maxHp = source.getMaxHp();
+        this.atk = source.getAtk();
+        this.def = source.getDef();
+        this.tempAtk = source.getTempAtk();
+        this.tempDef = source.getTempDef();
+        this.dodgeRate = source.getDodgeRate();
+        this.critRate = source.getCritRate();
+        this.critDamage = source.getCritDamage();
+        this.element = source.getElementType();
+        this.effects = new StatusEffectTable();
+        effects.copyFrom(source.getEffectTable());
+        this.alive = source.isAlive();
+    }
+
+    /**
+     * 玩家方的参与者，战斗中使用的物品直接从玩家背包中扣除
+     */
+    public static Combatant of(Player player) {
+        return new Combatant(player, player.getLevel(), player.getBackpack());
+    }
+
+    /**
+     * 玩家方的参与者，使用指定的物品列表（模拟战斗传入背包的副本，避免消耗模板玩家的物品）
+     */
+    public static Combatant of(Player player, List<Item> items) {
+        return new Combatant(player, player.getLevel(), items);
+    }
+
+    public static Combatant of(NPC npc) {
+        return new Combatant(npc, npc.getLevel(), Collections.emptyList());
+    }
+
+    public static List<Combatant> of(List<NPC> npcs) {
+        List<Combatant> combatants = new ArrayList<>(npcs.size());
+        for (NPC npc : npcs) {
+            combatants.add(of(npc));
+        }
+        return combatants;
+    }
+
+    /**
+     * 把战斗结果写回原对象
+     * 玩家生命值归零时会触发玩家的死亡处理
+     */
+    public void writeBack() {
+        source.setTempAtk(tempAtk);
+        source.setTempDef(tempDef);
+        source.getEffectTable().copyFrom(effects);
+        if (source instanceof Player) {
+            source.setHp(hp);
+        } else {
+            source.setHp(Math.max(0, hp));
+            source.setAlive(alive);
+        }
+    }
+
+    public BattleEntity getSource() {
+        return source;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * 可在战斗中使用的物品（NPC没有物品）
+     */
+    public List<Item> getItems() {
+        return items;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getHp() {
+        return hp;
+    }
+
+    @Override
+    public void setHp(int hp) {
+        this.hp = Math.min(hp, maxHp);
+        if (this.hp <= 0) {
+            alive = false;
+        }
+    }
+
+    @Override
+    public int getMaxHp() {
+        return maxHp;
+    }
+
+    @Override
+    public void setMaxHp(int maxHp) {
+        this.maxHp = maxHp;
+    }
+
+    @Override
+    public int getAtk() {
+        return atk;
+    }
+
+    @Override
+    public void setAtk(int atk) {
+        this.atk = atk;
+    }
+
+    @Override
+    public int getDef() {
+        return def;
+    }
+
+    @Override
+    public void setDef(int def) {
+        this.def = def;
+    }
+
+    @Override
+    public int getTempAtk() {
+        return tempAtk;
+    }
+
+    @Override
+    public void setTempAtk(int tempAtk) {
+        this.tempAtk = tempAtk;
+    }
+
+    @Override
+    public int getTempDef() {
+        return tempDef;
+    }
+
+    @Override
+    public void setTempDef(int tempDef) {
+        this.tempDef = tempDef;
+    }
+
+    @Override
+    public double getDodgeRate() {
+        return dodgeRate;
+    }
+
+    @Override
+    public void setDodgeRate(double dodgeRate) {
+        this.dodgeRate = dodgeRate;
+    }
+
+    @Override
+    public double getCritRate() {
+        return critRate;
+    }
+
+    @Override
+    public void setCritRate(double critRate) {
+        this.critRate = critRate;
+    }
+
+    @Override
+    public double getCritDamage() {
+        return critDamage;
+    }
+
+    @Override
+    public void setCritDamage(double critDamage) {
+        this.critDamage = critDamage;
+    }
+
+    @Override
+    public String getElement() {
+        return element.getDisplayName();
+    }
+
+    @Override
+    public void setElement(String element) {
+        this.element = Element.fromName(element);
+    }
+
+    @Override
+    public Element getElementType() {
+        return element;
+    }
+
+    @Override
+    public StatusEffectTable getEffectTable() {
+        return effects;
+    }
+
+    @Override
+    public List<StatusEffect> getStatusEffects() {
+        return effects.toList();
+    }
+
+    @Override
+    public void addStatusEffect(StatusEffect effect) {
+        effects.add(effect);
+    }
+
+    @Override
+    public void removeStatusEffect(StatusEffect effect) {
+        effects.remove(effect.getStatus());
+    }
+
+    @Override
+    public void clearStatusEffects() {
+        effects.clear();
+    }
+
+    @Override
+    public boolean hasStatus(BattleStatus status) {
+        return effects.has(status);
+    }
+
+    @Override
+    public void takeDamage(int damage) {
+        if (!alive) {
+            return;
+        }
+        hp -= damage;
+        if (hp <= 0) {
+            hp = 0;
+            alive = false;
+        }
+    }
+
+    @Override
+    public boolean isAlive() {
+        return alive;
+    }
+
+    @Override
+    public void setAlive(boolean alive) {
+        this.alive = alive;
+    }
+}
@@ -2,88 +2,237 @@ package com.mud.game.system;
 
 import com.mud.game.entity.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.regex.Pattern;
 
 public class DataManager {
     private static final String SAVE_DIR = "saves/";
+    private static final String PLAYER_SAVE_DIR = "players";
     private static final String SAVE_FILE_EXTENSION = ".dat";
+    private static final int MAX_SAVE_NAME_LENGTH = 32;
+    // 存档名称直接用作文件名，只允许字母、数字、汉字、下划线和减号
+    private static final Pattern SAVE_NAME_PATTERN =
+            Pattern.compile("[A-Za-z0-9_\\-\\u4e00-\\u9fa5]{1," + MAX_SAVE_NAME_LENGTH + "}");
+    
+    private final PlayerCodec codec = new PlayerCodec();
+    private final File saveDir;
+    private final SaveCatalog catalog;
     
     public DataManager() {
+        this(new File(SAVE_DIR));
+    }
+    
+    private DataManager(File saveDir) {
         // 确保保存目录存在
-        File saveDir = new File(SAVE_DIR);
         if (!saveDir.exists()) {
             saveDir.mkdirs();
         }
+        this.saveDir = saveDir;
+        this.catalog = SaveCatalog.forDirectory(saveDir, SAVE_FILE_EXTENSION, this::readHeaderFromFile);
+    }
+    
+    /**
+     * 获取玩家可以使用的存档管理器
+     * 控制台模式下使用公共存档目录；服务器模式下每个玩家只能看到、加载和删除自己目录下的存档
+     */
+    public static DataManager forPlayer(Player player) {
+        if (!GameConsole.isSessionThread()) {
+            return new DataManager();
+        }
+        File playersDir = new File(SAVE_DIR, PLAYER_SAVE_DIR);
+        return new DataManager(new File(playersDir, playerDirectoryName(player.getName())));
+    }
+    
+    /**
+     * 玩家存档目录名称：合法的玩家名直接使用，其他名称（含路径分隔符、过长等）使用其散列值
+     */
+    private static String playerDirectoryName(String playerName) {
+        String name = playerName != null ? playerName : "";
+        if (isValidSaveName(name)) {
+            return name;
+        }
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+    
+    /**
+     * 检查存档名称是否合法
+     * 存档名称会拼接成存档文件路径，不允许路径分隔符、“..”和其他特殊字符
+     */
+    public static boolean isValidSaveName(String saveName) {
+        return saveName != null && SAVE_NAME_PATTERN.matcher(saveName).matches();
+    }
+    
+    /**
+     * 存档名称不合法时的提示
+     */
+    public static String getSaveNameRule() {
+        return "存档名称只能包含字母、数字、汉字、下划线和减号，最多" + MAX_SAVE_NAME_LENGTH + "个字符";
+    }
+    
+    private File saveFileOf(String saveName) {
+        return new File(saveDir, saveName + SAVE_FILE_EXTENSION);
+    }
+    
+    private boolean checkSaveName(String saveName) {
+        if (!isValidSaveName(saveName)) {
+            System.out.println(getSaveNameRule());
+            return false;
+        }
+        return true;
     }
     
     public boolean saveGame(Player player, String saveName) {
+        SaveSnapshot snapshot = createSnapshot(player, saveName);
+        return snapshot != null && writeSnapshot(snapshot);
+    }
+    
+    /**
+     * 将玩家当前状态编码为存档快照（在调用线程上执行，耗时很短）
+     * 快照生成后与玩家对象无关，可以交给其他线程写入磁盘
+     * @return 存档快照，编码失败时返回null
+     */
+    public SaveSnapshot createSnapshot(Player player, String saveName) {
+        if (!checkSaveName(saveName)) {
+            return null;
+        }
+        long saveTime = System.currentTimeMillis();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
         try {
-            String fileName = SAVE_DIR + saveName + SAVE_FILE_EXTENSION;
-            
-            // 创建保存数据对象
-            SaveData saveData = new SaveData();
-            saveData.setPlayer(player);
-            saveData.setSaveTime(new Date());
-            saveData.setGameVersion("1.0");
-            
-            // 序列化保存数据
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(fileName))) {
-                oos.writeObject(saveData);
-                return true;
+            codec.write(player, saveTime, bytes);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("保存游戏失败: " + e.getMessage());
+            return null;
+        }
+        SaveHeader header = new SaveHeader(saveName, player.getName(), player.getLevel(),
+                player.getCurrentRoomName(), player.getMoney(), saveTime, PlayerCodec.VERSION);
+        return new SaveSnapshot(saveFileOf(saveName), header, bytes.toByteArray());
+    }
+    
+    /**
+     * 将存档快照写入磁盘并更新存档索引
+     * 先写入临时文件再原子替换，写入中途失败不会损坏原有存档
+     */
+    public boolean writeSnapshot(SaveSnapshot snapshot) {
+        File saveFile = snapshot.getFile();
+        File tempFile = new File(saveFile.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                out.write(snapshot.getData());
             }
+            Files.move(tempFile.toPath(), saveFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
             System.err.println("保存游戏失败: " + e.getMessage());
+            tempFile.delete();
             return false;
         }
+        
+        // 同步更新存档所在目录的索引
+        SaveCatalog.forDirectory(saveFile.getParentFile(), SAVE_FILE_EXTENSION, this::readHeaderFromFile)
+                .put(snapshot.getHeader());
+        return true;
     }
     
     public Player loadGame(String saveName) {
-        try {
-            String fileName = SAVE_DIR + saveName + SAVE_FILE_EXTENSION;
-            File saveFile = new File(fileName);
-            
-            if (!saveFile.exists()) {
-                System.out.println("存档文件不存在！");
-                return null;
-            }
-            
-            // 反序列化保存数据
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(saveFile))) {
-                SaveData saveData = (SaveData) ois.readObject();
-                return saveData.getPlayer();
+        if (!checkSaveName(saveName)) {
+            return null;
+        }
+        File saveFile = saveFileOf(saveName);
+        // 等待该存档尚未写入磁盘的异步保存完成
+        AutosaveService.awaitPending(saveFile);
+        
+        if (!saveFile.exists()) {
+            System.out.println("存档文件不存在！");
+            catalog.remove(saveName);
+            return null;
+        }
+        
+        try (InputStream in = new BufferedInputStream(new FileInputStream(saveFile))) {
+            if (isCodecFormat(in)) {
+                return codec.read(in);
             }
-        } catch (IOException | ClassNotFoundException e) {
+            // 旧版本使用Java序列化保存的存档
+            return readLegacySave(in).getPlayer();
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
             System.err.println("加载游戏失败: " + e.getMessage());
             return null;
         }
     }
     
+    /**
+     * 检查存档是否为二进制编码格式（不消耗输入）
+     */
+    private boolean isCodecFormat(InputStream in) throws IOException {
+        byte[] head = new byte[4];
+        in.mark(head.length);
+        int n = in.readNBytes(head, 0, head.length);
+        in.reset();
+        return n == head.length && PlayerCodec.isCodecFormat(head);
+    }
+    
+    private SaveData readLegacySave(InputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream ois = new ObjectInputStream(in);
+        return (SaveData) ois.readObject();
+    }
+    
+    /**
+     * 所有存档名称，来自存档索引和尚未写入磁盘的存档，不遍历存档目录
+     */
     public List<String> getAvailableSaves() {
-        List<String> saves = new ArrayList<>();
-        File saveDir = new File(SAVE_DIR);
-        
-        if (saveDir.exists() && saveDir.isDirectory()) {
-            File[] files = saveDir.listFiles((dir, name) -> name.endsWith(SAVE_FILE_EXTENSION));
-            if (files != null) {
-                for (File file : files) {
-                    String fileName = file.getName();
-                    String saveName = fileName.substring(0, fileName.length() - SAVE_FILE_EXTENSION.length());
-                    saves.add(saveName);
-                }
-            }
+        List<String> names = new ArrayList<>();
+        for (SaveHeader header : getSaveHeaders()) {
+            names.add(header.getSaveName());
         }
-        
-        return saves;
+        return names;
+    }
+    
+    /**
+     * 所有存档的摘要信息，来自存档索引；尚未写入磁盘的存档以最新的快照为准
+     * 不等待后台写入，列出存档不会被其他玩家的保存阻塞
+     */
+    public List<SaveHeader> getSaveHeaders() {
+        List<SaveHeader> headers = catalog.getHeaders();
+        List<SaveHeader> pending = AutosaveService.pendingHeaders(saveDir);
+        if (pending.isEmpty()) {
+            return headers;
+        }
+        Map<String, SaveHeader> merged = new LinkedHashMap<>();
+        for (SaveHeader header : headers) {
+            merged.put(header.getSaveName(), header);
+        }
+        for (SaveHeader header : pending) {
+            merged.put(header.getSaveName(), header);
+        }
+        return new ArrayList<>(merged.values());
+    }
+    
+    public boolean hasSave(String saveName) {
+        if (!isValidSaveName(saveName)) {
+            return false;
+        }
+        AutosaveService.awaitPending(saveFileOf(saveName));
+        return catalog.contains(saveName);
     }
     
     public boolean deleteSave(String saveName) {
+        if (!checkSaveName(saveName)) {
+            return false;
+        }
+        File saveFile = saveFileOf(saveName);
+        AutosaveService.awaitPending(saveFile);
         try {
-            String fileName = SAVE_DIR + saveName + SAVE_FILE_EXTENSION;
-            File saveFile = new File(fileName);
-            
+
             if (saveFile.exists()) {
-                return saveFile.delete();
+                boolean deleted = saveFile.delete();
+                if (deleted) {
+                    catalog.remove(saveName);
+                }
+                return deleted;
             }
+            catalog.remove(saveName);
             return false;
         } catch (Exception e) {
             System.err.println("删除存档失败: " + e.getMessage());
@@ -92,35 +241,72 @@ public class DataManager {
     }
     
     public boolean showSaveInfo(String saveName) {
-        try {
-            String fileName = SAVE_DIR + saveName + SAVE_FILE_EXTENSION;
-            File saveFile = new File(fileName);
-            
-            if (!saveFile.exists()) {
-                System.out.println("存档文件不存在！");
-                return false;
+        if (!checkSaveName(saveName)) {
+            return false;
+        }
+        AutosaveService.awaitPending(saveFileOf(saveName));
+        SaveHeader header = catalog.getHeader(saveName);
+        if (header == null) {
+            System.out.println("存档文件不存在！");
+            return false;
+        }
+        header.show();
+        return true;
+    }
+    
+    /**
+     * 从存档文件读取摘要（用于重建存档索引）
+     * 新格式只读取头部；旧格式和没有头部的早期二进制存档需要完整读取
+     */
+    private SaveHeader readHeaderFromFile(File saveFile) {
+        String fileName = saveFile.getName();
+        String saveName = fileName.substring(0, fileName.length() - SAVE_FILE_EXTENSION.length());
+        
+        try (InputStream in = new BufferedInputStream(new FileInputStream(saveFile))) {
+            if (isCodecFormat(in)) {
+                in.mark(64);
+                SaveHeader header = codec.readHeader(in, saveName);
+                if (header != null) {
+                    return header;
+                }
+                in.reset();
+                Player player = codec.read(in);
+                return new SaveHeader(saveName, player.getName(), player.getLevel(),
+                        player.getCurrentRoomName(), player.getMoney(), saveFile.lastModified(), 1);
             }
             
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(saveFile))) {
-                SaveData saveData = (SaveData) ois.readObject();
-                
-                System.out.println("=== 存档信息 ===");
-                System.out.println("存档名称: " + saveName);
-                System.out.println("保存时间: " + saveData.getSaveTime());
-                System.out.println("游戏版本: " + saveData.getGameVersion());
-                System.out.println("角色名称: " + saveData.getPlayer().getName());
-                System.out.println("角色等级: " + saveData.getPlayer().getLevel());
-                System.out.println("当前位置: " + saveData.getPlayer().getCurrentRoomName());
-                System.out.println("拥有金币: " + saveData.getPlayer().getMoney());
-            }
-        } catch (IOException | ClassNotFoundException e) {
+            SaveData saveData = readLegacySave(in);
+            Player player = saveData.getPlayer();
+            return new SaveHeader(saveName, player.getName(), player.getLevel(),
+                    player.getCurrentRoomName(), player.getMoney(), saveData.getSaveTime().getTime(), 0);
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
             System.err.println("读取存档信息失败: " + e.getMessage());
-            return false;
+            return null;
         }
-        return true;
     }
     
-    // 内部类用于保存数据
+    /**
+     * 已编码的存档快照：存档文件、存档摘要和完整的存档内容
+     */
+    public static class SaveSnapshot {
+        private final File file;
+        private final SaveHeader header;
+        private final byte[] data;
+        
+        public SaveSnapshot(File file, SaveHeader header, byte[] data) {
+            this.file = file;
+            this.header = header;
+            this.data = data;
+        }
+        
+        public File getFile() { return file; }
+        
+        public SaveHeader getHeader() { return header; }
+        
+        public byte[] getData() { return data; }
+    }
+    
+    // 旧版存档的数据结构，仅用于读取Java序列化格式的存档
     private static class SaveData implements Serializable {
         private static final long serialVersionUID = 1L;
         
@@ -0,0 +1,178 @@
+package com.mud.game.system;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 游戏控制台路由
+ * 将 System.out 按当前线程绑定的会话进行分发，并通过 readLine 读取该会话的输入，
+ * 使同一进程内的多个玩家会话各自拥有独立的输入输出。
+ * 未绑定会话的线程仍使用原始的标准输入输出。
+ */
+public class GameConsole {
+
+    /**
+     * 会话的行输入来源
+     */
+    public interface LineSource {
+        /**
+         * 阻塞读取下一行输入
+         * @return 一行输入（不含换行符），会话关闭时返回null
+         */
+        String readLine() throws InterruptedException;
+    }
+
+    /**
+     * 会话结束信号，用于替代会话线程中的 System.exit
+     */
+    public static class SessionClosedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        public SessionClosedException(int status) {
+            super("会话已结束");
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private static final class Binding {
+        private final PrintStream out;
+        private final LineSource in;
+
+        private Binding(PrintStream out, LineSource in) {
+            this.out = out;
+            this.in = in;
+        }
+    }
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+    private static final PrintStream STDOUT = System.out;
+    private static volatile boolean installed = false;
+    private static BufferedReader stdin;
+
+    /**
+     * 安装路由输出流，需在创建任何会话之前调用
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        System.setOut(new PrintStream(new RoutingOutputStream(), true, StandardCharsets.UTF_8));
+        installed = true;
+    }
+
+    /**
+     * 读取一行玩家输入
+     * 会话线程从会话输入中读取，其余线程从标准输入读取；
+     * 所有模块共用同一个输入来源，不会出现多个Scanner互相抢读的问题
+     * @return 一行输入（不含换行符）
+     */
+    public static String readLine() {
+        System.out.flush();
+        Binding binding = CURRENT.get();
+        String line;
+        try {
+            line = binding != null ? binding.in.readLine() : stdinReader().readLine();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            line = null;
+        } catch (IOException e) {
+            line = null;
+        }
+
+        if (line == null) {
+            // 输入已关闭：结束当前会话（控制台模式下退出游戏）
+            exit(0);
+        }
+        return line;
+    }
+
+    private static synchronized BufferedReader stdinReader() {
+        if (stdin == null) {
+            stdin = new BufferedReader(new InputStreamReader(System.in));
+        }
+        return stdin;
+    }
+
+    /**
+     * 将当前线程绑定到会话
+     * @param out 会话输出流（UTF-8）
+     * @param in 会话行输入来源
+     */
+    public static void bind(OutputStream out, LineSource in) {
+        CURRENT.set(new Binding(new PrintStream(out, true, StandardCharsets.UTF_8), in));
+    }
+
+    /**
+     * 解除当前线程的会话绑定
+     */
+    public static void unbind() {
+        PacingTimeline.drain();
+        Binding binding = CURRENT.get();
+        CURRENT.remove();
+        if (binding != null) {
+            binding.out.flush();
+        }
+    }
+
+    /**
+     * 当前线程是否运行在会话中
+     */
+    public static boolean isSessionThread() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * 结束游戏：会话线程中只结束该会话，控制台模式下退出进程
+     * @param status 退出码
+     */
+    public static void exit(int status) {
+        // 先写完还在等待显示的战斗输出
+        PacingTimeline.drain();
+        if (isSessionThread()) {
+            System.out.flush();
+            throw new SessionClosedException(status);
+        }
+        System.exit(status);
+    }
+
+    /**
+     * 当前线程的实际输出（会话输出或标准输出）
+     */
+    static PrintStream currentOut() {
+        Binding binding = CURRENT.get();
+        return binding != null ? binding.out : STDOUT;
+    }
+
+    /**
+     * 按线程分发的输出流
+     */
+    private static final class RoutingOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            // 有待显示的帧时排在其后，保持输出顺序
+            if (!PacingTimeline.offer(b, off, len)) {
+                currentOut().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() {
+            currentOut().flush();
+        }
+    }
+}
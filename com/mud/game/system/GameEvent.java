@@ -0,0 +1,59 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.Player;
+
+/**
+ * 游戏事件
+ * 由玩家的行为产生，通过 {@link GameEventBus} 分发给关心该事件的订阅者
+ */
+public class GameEvent {
+    public enum Type {
+        /** 进入房间，目标为房间名称 */
+        ENTER,
+        /** 与NPC对话，目标为NPC名称 */
+        TALK,
+        /** 击败敌人，目标为敌人名称 */
+        KILL,
+        /** 拾取物品，目标为物品名称 */
+        COLLECT,
+        /** 完成任务，目标为任务名称 */
+        TASK_COMPLETED
+    }
+
+    private final Type type;
+    private final Player player;
+    private final String target;
+    private final int amount;
+
+    public GameEvent(Type type, Player player, String target, int amount) {
+        this.type = type;
+        this.player = player;
+        this.target = target;
+        this.amount = amount;
+    }
+
+    public GameEvent(Type type, Player player, String target) {
+        this(type, player, target, 1);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return type + "(" + target + " x" + amount + ")";
+    }
+}
@@ -0,0 +1,81 @@
+package com.mud.game.system;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 游戏事件总线
+ * 订阅按（事件类型, 目标）建立索引，发布事件时只通知关心该目标的订阅者和该类型的全目标订阅者，
+ * 每个事件的开销只与感兴趣的订阅者数量有关。
+ *
+ * 同一事件先通知指定目标的订阅者，再通知全目标订阅者，各自按订阅顺序执行。
+ * 订阅者可以在处理事件时发布新的事件（同步嵌套分发）。
+ */
+public class GameEventBus {
+    private final Map<GameEvent.Type, Map<String, List<Consumer<GameEvent>>>> byTarget;
+    private final Map<GameEvent.Type, List<Consumer<GameEvent>>> anyTarget;
+
+    public GameEventBus() {
+        this.byTarget = new EnumMap<>(GameEvent.Type.class);
+        this.anyTarget = new EnumMap<>(GameEvent.Type.class);
+    }
+
+    /**
+     * 订阅某个目标的事件
+     * @param type 事件类型
+     * @param target 目标名称，为null时订阅该类型的所有事件
+     * @param listener 事件处理方法
+     */
+    public synchronized void subscribe(GameEvent.Type type, String target, Consumer<GameEvent> listener) {
+        if (target == null) {
+            subscribe(type, listener);
+            return;
+        }
+        byTarget.computeIfAbsent(type, t -> new HashMap<>())
+                .computeIfAbsent(target, t -> new CopyOnWriteArrayList<>())
+                .add(listener);
+    }
+
+    /**
+     * 订阅某个类型的所有事件
+     */
+    public synchronized void subscribe(GameEvent.Type type, Consumer<GameEvent> listener) {
+        anyTarget.computeIfAbsent(type, t -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * 取消订阅
+     */
+    public synchronized void unsubscribe(GameEvent.Type type, String target, Consumer<GameEvent> listener) {
+        List<Consumer<GameEvent>> listeners = target == null
+                ? anyTarget.get(type)
+                : byTarget.getOrDefault(type, Collections.emptyMap()).get(target);
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * 发布事件
+     */
+    public void publish(GameEvent event) {
+        List<Consumer<GameEvent>> targeted;
+        List<Consumer<GameEvent>> untargeted;
+        synchronized (this) {
+            Map<String, List<Consumer<GameEvent>>> targets = byTarget.get(event.getType());
+            targeted = targets != null && event.getTarget() != null ? targets.get(event.getTarget()) : null;
+            untargeted = anyTarget.get(event.getType());
+        }
+        if (targeted != null) {
+            for (Consumer<GameEvent> listener : targeted) {
+                listener.accept(event);
+            }
+        }
+        if (untargeted != null) {
+            for (Consumer<GameEvent> listener : untargeted) {
+                listener.accept(event);
+            }
+        }
+    }
+}
@@ -9,7 +9,6 @@ import com.mud.game.entity.EquipmentGrade;
 import com.mud.game.entity.Task;
 import com.mud.game.entity.NPC;
 import com.mud.game.MudGame;
-import java.util.Scanner;
 import java.util.Map;
 
 /**
@@ -17,13 +16,11 @@ import java.util.Map;
  * 提供新游戏、加载存档、存档管理等功能
  */
 public class GameLauncher {
-    private Scanner scanner;
     private GameLoader gameLoader;
     private MapManager mapManager;
     private TaskManager taskManager;
     
     public GameLauncher() {
-        this.scanner = new Scanner(System.in);
         this.gameLoader = new GameLoader();
         this.mapManager = new MapManager();
         this.taskManager = new TaskManager();
@@ -45,7 +42,7 @@ public class GameLauncher {
             System.out.println("=".repeat(50));
             
             System.out.print("请选择操作：");
-            String choice = scanner.nextLine().trim();
+            String choice = GameConsole.readLine().trim();
             
             switch (choice) {
                 case "1":
@@ -75,7 +72,7 @@ public class GameLauncher {
         System.out.println("\n=== 创建新角色 ===");
         
         System.out.print("请输入角色姓名：");
-        String playerName = scanner.nextLine().trim();
+        String playerName = GameConsole.readLine().trim();
         
         if (playerName.isEmpty()) {
             playerName = "无名侠士";
@@ -110,10 +107,11 @@ public class GameLauncher {
         
         // 重新建立玩家与房间的连接
         String currentRoomName = loadedPlayer.getCurrentRoomName();
-        Room currentRoom = mapManager.getRoom(currentRoomName);
+        Room currentRoom = mapManager.getRoomByName(currentRoomName);
         
         if (currentRoom != null) {
             loadedPlayer.setCurrentRoom(currentRoom);
+            taskManager.assignAllTasks(loadedPlayer);
             
             // 恢复NPC的血量状态
             restoreNpcHealth(loadedPlayer);
@@ -224,13 +222,6 @@ public class GameLauncher {
         System.out.println("=".repeat(60));
     }
     
-    /**
-     * 获取扫描器（用于主游戏循环）
-     */
-    public Scanner getScanner() {
-        return scanner;
-    }
-    
     /**
      * 获取地图管理器
      */
@@ -263,13 +254,4 @@ public class GameLauncher {
         
         System.out.println("游戏结束，再见！");
     }
-    
-    /**
-     * 关闭资源
-     */
-    public void close() {
-        if (scanner != null) {
-            scanner.close();
-        }
-    }
 }
\ No newline at end of file
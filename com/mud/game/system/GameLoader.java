@@ -3,7 +3,6 @@ package com.mud.game.system;
 import com.mud.game.entity.Player;
 import com.mud.game.entity.Room;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * 游戏存档加载器
@@ -11,11 +10,9 @@ import java.util.Scanner;
  */
 public class GameLoader {
     private DataManager dataManager;
-    private Scanner scanner;
     
     public GameLoader() {
         this.dataManager = new DataManager();
-        this.scanner = new Scanner(System.in);
     }
     
     /**
@@ -25,8 +22,8 @@ public class GameLoader {
     public Player showLoadMenu() {
         System.out.println("\n=== 加载游戏 ===");
         
-        // 获取可用存档
-        List<String> saves = dataManager.getAvailableSaves();
+        // 获取可用存档（只读取存档索引）
+        List<SaveHeader> saves = dataManager.getSaveHeaders();
         
         if (saves.isEmpty()) {
             System.out.println("暂无可用存档！");
@@ -37,7 +34,7 @@ public class GameLoader {
         // 显示存档列表
         System.out.println("可用存档：");
         for (int i = 0; i < saves.size(); i++) {
-            System.out.println("  " + (i + 1) + ". " + saves.get(i));
+            System.out.println("  " + (i + 1) + ". " + saves.get(i).getSummary());
         }
         System.out.println("  0. 取消加载");
         
@@ -64,9 +61,9 @@ public class GameLoader {
     /**
      * 选择存档
      */
-    private String selectSave(List<String> saves) {
+    private String selectSave(List<SaveHeader> saves) {
         System.out.print("\n请选择要加载的存档（输入编号或名称）：");
-        String input = scanner.nextLine().trim();
+        String input = GameConsole.readLine().trim();
         
         // 取消加载
         if (input.equals("0")) {
@@ -77,14 +74,14 @@ public class GameLoader {
         try {
             int index = Integer.parseInt(input) - 1;
             if (index >= 0 && index < saves.size()) {
-                return saves.get(index);
+                return saves.get(index).getSaveName();
             } else {
                 System.out.println("无效的编号！");
                 return selectSave(saves); // 递归重新选择
             }
         } catch (NumberFormatException e) {
             // 如果不是数字，检查是否是有效的存档名称
-            if (saves.contains(input)) {
+            if (dataManager.hasSave(input)) {
                 return input;
             } else {
                 System.out.println("存档不存在！");
@@ -98,7 +95,7 @@ public class GameLoader {
      */
     private boolean confirmLoad() {
         System.out.print("\n确认加载此存档？(y/n): ");
-        String confirm = scanner.nextLine().trim().toLowerCase();
+        String confirm = GameConsole.readLine().trim().toLowerCase();
         return confirm.equals("y") || confirm.equals("yes");
     }
     
@@ -169,7 +166,7 @@ public class GameLoader {
             System.out.println("4. 返回主菜单");
             
             System.out.print("请选择操作：");
-            String choice = scanner.nextLine().trim();
+            String choice = GameConsole.readLine().trim();
             
             switch (choice) {
                 case "1":
@@ -193,8 +190,10 @@ public class GameLoader {
      * 显示所有存档
      */
     private void showAllSaves() {
-        List<String> saves = dataManager.getAvailableSaves();
-        
+        showAllSaves(dataManager.getSaveHeaders());
+    }
+    
+    private void showAllSaves(List<SaveHeader> saves) {
         if (saves.isEmpty()) {
             System.out.println("暂无存档！");
             return;
@@ -202,7 +201,7 @@ public class GameLoader {
         
         System.out.println("\n=== 所有存档 ===");
         for (int i = 0; i < saves.size(); i++) {
-            System.out.println((i + 1) + ". " + saves.get(i));
+            System.out.println((i + 1) + ". " + saves.get(i).getSummary());
         }
     }
     
@@ -210,28 +209,28 @@ public class GameLoader {
      * 显示存档详情
      */
     private void showSaveDetails() {
-        List<String> saves = dataManager.getAvailableSaves();
+        List<SaveHeader> saves = dataManager.getSaveHeaders();
         
         if (saves.isEmpty()) {
             System.out.println("暂无存档！");
             return;
         }
         
-        showAllSaves();
+        showAllSaves(saves);
         System.out.print("请输入要查看的存档编号或名称：");
-        String input = scanner.nextLine().trim();
+        String input = GameConsole.readLine().trim();
         
         String saveName;
         try {
             int index = Integer.parseInt(input) - 1;
             if (index >= 0 && index < saves.size()) {
-                saveName = saves.get(index);
+                saveName = saves.get(index).getSaveName();
             } else {
                 System.out.println("无效的编号！");
                 return;
             }
         } catch (NumberFormatException e) {
-            if (saves.contains(input)) {
+            if (dataManager.hasSave(input)) {
                 saveName = input;
             } else {
                 System.out.println("存档不存在！");
@@ -246,28 +245,28 @@ public class GameLoader {
      * 删除存档
      */
     private void deleteSave() {
-        List<String> saves = dataManager.getAvailableSaves();
+        List<SaveHeader> saves = dataManager.getSaveHeaders();
         
         if (saves.isEmpty()) {
             System.out.println("暂无存档！");
             return;
         }
         
-        showAllSaves();
+        showAllSaves(saves);
         System.out.print("请输入要删除的存档编号或名称：");
-        String input = scanner.nextLine().trim();
+        String input = GameConsole.readLine().trim();
         
         String saveName;
         try {
             int index = Integer.parseInt(input) - 1;
             if (index >= 0 && index < saves.size()) {
-                saveName = saves.get(index);
+                saveName = saves.get(index).getSaveName();
             } else {
                 System.out.println("无效的编号！");
                 return;
             }
         } catch (NumberFormatException e) {
-            if (saves.contains(input)) {
+            if (dataManager.hasSave(input)) {
                 saveName = input;
             } else {
                 System.out.println("存档不存在！");
@@ -276,7 +275,7 @@ public class GameLoader {
         }
         
         System.out.print("确认删除存档 '" + saveName + "'？(y/n): ");
-        String confirm = scanner.nextLine().trim().toLowerCase();
+        String confirm = GameConsole.readLine().trim().toLowerCase();
         
         if (confirm.equals("y") || confirm.equals("yes")) {
             if (dataManager.deleteSave(saveName)) {
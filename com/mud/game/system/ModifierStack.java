@@ -0,0 +1,83 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.BattleEntity;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 回合临时属性栈
+ * 战斗中的临时攻防加成（防御姿态、状态效果的强化/虚弱、敌人技能的削弱）都以修正值压入本栈，
+ * 压入时立即计入目标的临时攻击/防御，由战斗循环在回合结束时按回合号撤销，
+ * 不依赖计时线程，同样的战斗过程总是得到同样的属性变化。
+ *
+ * 战斗结束时调用 {@link #clear()} 撤销所有修正，临时属性不会带出战斗。
+ */
+public class ModifierStack {
+    /** 持续到战斗结束的修正 */
+    public static final int UNTIL_BATTLE_END = Integer.MAX_VALUE;
+
+    private final List<Modifier> modifiers = new ArrayList<>();
+
+    /**
+     * 压入一个修正并立即生效
+     * @param target 目标
+     * @param atk 临时攻击力修正
+     * @param def 临时防御力修正
+     * @param lastTurn 最后生效的回合，该回合结束时撤销
+     */
+    public void push(BattleEntity target, int atk, int def, int lastTurn) {
+        if (atk == 0 && def == 0) {
+            return;
+        }
+        target.setTempAtk(target.getTempAtk() + atk);
+        target.setTempDef(target.getTempDef() + def);
+        modifiers.add(new Modifier(target, atk, def, lastTurn));
+    }
+
+    /**
+     * 回合结束：撤销在该回合（及之前）到期的修正
+     * @param endedTurn 刚结束的回合
+     */
+    public void expire(int endedTurn) {
+        for (int i = modifiers.size() - 1; i >= 0; i--) {
+            Modifier modifier = modifiers.get(i);
+            if (modifier.lastTurn <= endedTurn) {
+                modifier.revert();
+                modifiers.remove(i);
+            }
+        }
+    }
+
+    /**
+     * 撤销所有修正（战斗结束时调用）
+     */
+    public void clear() {
+        for (int i = modifiers.size() - 1; i >= 0; i--) {
+            modifiers.get(i).revert();
+        }
+        modifiers.clear();
+    }
+
+    public int size() {
+        return modifiers.size();
+    }
+
+    private static final class Modifier {
+        private final BattleEntity target;
+        private final int atk;
+        private final int def;
+        private final int lastTurn;
+
+        private Modifier(BattleEntity target, int atk, int def, int lastTurn) {
+            this.target = target;
+            this.atk = atk;
+            this.def = def;
+            this.lastTurn = lastTurn;
+        }
+
+        private void revert() {
+            target.setTempAtk(target.getTempAtk() - atk);
+            target.setTempDef(target.getTempDef() - def);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.mud.game.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 输出节奏时间线
+ * 战斗和动画中的停顿不再让调用线程睡眠：{@link #pause(long)} 只是把之后的输出推迟，
+ * 输出按顺序缓存成帧，到时间后由共享的调度线程写出，调用线程立即继续执行。
+ * 所有会话共用一个调度线程，有节奏的显示不会额外占用线程。
+ *
+ * 时间线按线程绑定到该线程当前的输出（会话输出或标准输出）。
+ * 时间线有待显示的帧时，该线程写入 System.out 的内容都会排在这些帧之后，输出顺序与睡眠时完全一致。
+ *
+ * 测试和模拟时可以通过 {@link #setEnabled(boolean)} 或启动参数 -Dmud.pacing=off 关闭停顿。
+ */
+public class PacingTimeline {
+    private static final long DRAIN_TIMEOUT_MS = 30000;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mud-pacing");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ThreadLocal<PacingTimeline> CURRENT = new ThreadLocal<>();
+    private static volatile boolean enabled = !"off".equalsIgnoreCase(System.getProperty("mud.pacing"));
+
+    private final PrintStream target;
+    // 正在接收输出的帧，为null时时间线空闲，输出直接写出
+    private Frame open;
+
+    private PacingTimeline(PrintStream target) {
+        this.target = target;
+    }
+
+    /**
+     * 推迟当前线程之后的输出
+     * 调用线程不会等待，停顿关闭时不做任何事
+     * @param milliseconds 停顿时长（毫秒）
+     */
+    public static void pause(long milliseconds) {
+        if (!enabled || milliseconds <= 0) {
+            return;
+        }
+        PacingTimeline timeline = CURRENT.get();
+        if (timeline == null) {
+            // 输出需要经过路由才能排队
+            GameConsole.install();
+            timeline = new PacingTimeline(GameConsole.currentOut());
+            CURRENT.set(timeline);
+        }
+        timeline.schedulePause(milliseconds);
+    }
+
+    /**
+     * 等待当前线程所有待显示的帧写出（结束会话或退出进程之前调用）
+     */
+    public static void drain() {
+        PacingTimeline timeline = CURRENT.get();
+        if (timeline != null) {
+            timeline.awaitIdle();
+            CURRENT.remove();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 打开或关闭停顿，关闭后所有输出立即写出
+     */
+    public static void setEnabled(boolean pacingEnabled) {
+        enabled = pacingEnabled;
+    }
+
+    /**
+     * 把当前线程的输出排到待显示的帧之后
+     * @return 是否已排队；时间线空闲时返回false，由调用者直接写出
+     */
+    static boolean offer(byte[] bytes, int offset, int length) {
+        PacingTimeline timeline = CURRENT.get();
+        return timeline != null && timeline.append(bytes, offset, length);
+    }
+
+    private synchronized void schedulePause(long milliseconds) {
+        long now = System.nanoTime();
+        long base = open != null ? open.dueNanos : now;
+        Frame frame = new Frame(base + TimeUnit.MILLISECONDS.toNanos(milliseconds));
+        open = frame;
+        SCHEDULER.schedule(() -> show(frame), frame.dueNanos - now, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized boolean append(byte[] bytes, int offset, int length) {
+        if (open == null) {
+            return false;
+        }
+        open.buffer.write(bytes, offset, length);
+        return true;
+    }
+
+    /**
+     * 在调度线程上写出一帧
+     */
+    private synchronized void show(Frame frame) {
+        byte[] bytes = frame.buffer.toByteArray();
+        target.write(bytes, 0, bytes.length);
+        target.flush();
+        if (open == frame) {
+            open = null;
+            notifyAll();
+        }
+    }
+
+    private synchronized void awaitIdle() {
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        while (open != null) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return;
+            }
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 一帧输出：到期时间和停顿之后写入的内容
+     */
+    private static final class Frame {
+        private final long dueNanos;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private Frame(long dueNanos) {
+            this.dueNanos = dueNanos;
+        }
+    }
+}
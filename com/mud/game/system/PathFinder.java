@@ -0,0 +1,210 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.Direction;
+import com.mud.game.entity.Room;
+import java.util.*;
+
+/**
+ * 房间图上的最短路径查询
+ * 先把世界按出口连通性划分为连通块（不同连通块之间没有路径），再按连通块保存下一步方向表：
+ * 表中记录从连通块内任意房间走向某个目标房间时第一步应走的方向，查询路径只需沿表逐步查找。
+ *
+ * 不超过 PRECOMPUTE_LIMIT 个房间的连通块在创建时预先计算全部房间对的方向表；
+ * 更大的连通块（例如生成的大世界）按目标房间在第一次查询时计算，并缓存最近使用的若干张。
+ * 方向表基于不可变的世界模板，地图更换时由新模板创建新的 PathFinder，旧表随旧模板一起作废。
+ */
+public class PathFinder {
+    // 预先计算全部房间对的连通块大小上限（方向表占用 n*n 字节）
+    private static final int PRECOMPUTE_LIMIT = 256;
+    // 大连通块按目标缓存的方向表数量
+    private static final int CACHE_SIZE = 64;
+    private static final byte NO_STEP = -1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final WorldTemplate world;
+    private final int[] componentOf;        // 房间编号 -> 连通块编号
+    private final int[] localIndex;    // 房间编号 -> 在连通块内的序号
+    private final int[][] componentRooms;   // 连通块编号 -> 连通块内的房间编号
+    private final byte[][] componentTables; // 小连通块的全部房间对方向表，下标为 目标序号 * 连通块大小 + 出发序号
+    private final Map<Integer, byte[]> targetTables;
+
+    // 反向邻接表（CSR）：指向房间 i 的出口为 reverseFrom/reverseDir[reverseStart[i] .. reverseStart[i+1])
+    private final int[] reverseStart;
+    private final int[] reverseFrom;
+    private final byte[] reverseDir;
+
+    public PathFinder(WorldTemplate world) {
+        this.world = world;
+        int roomCount = world.getRoomCount();
+        this.componentOf = new int[roomCount];
+        this.localIndex = new int[roomCount];
+
+        // 建立反向邻接表
+        reverseStart = new int[roomCount + 1];
+        for (int room = 0; room < roomCount; room++) {
+            for (int dir = 0; dir < WorldTemplate.DIRECTION_COUNT; dir++) {
+                int target = world.getExit(room, dir);
+                if (target != Room.NO_ID) {
+                    reverseStart[target + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < roomCount; i++) {
+            reverseStart[i + 1] += reverseStart[i];
+        }
+        reverseFrom = new int[reverseStart[roomCount]];
+        reverseDir = new byte[reverseStart[roomCount]];
+        int[] fill = Arrays.copyOf(reverseStart, roomCount);
+        for (int room = 0; room < roomCount; room++) {
+            for (int dir = 0; dir < WorldTemplate.DIRECTION_COUNT; dir++) {
+                int target = world.getExit(room, dir);
+                if (target != Room.NO_ID) {
+                    reverseFrom[fill[target]] = room;
+                    reverseDir[fill[target]] = (byte) dir;
+                    fill[target]++;
+                }
+            }
+        }
+
+        this.componentRooms = findComponents(roomCount);
+        this.componentTables = new byte[componentRooms.length][];
+        for (int component = 0; component < componentRooms.length; component++) {
+            int[] rooms = componentRooms[component];
+            if (rooms.length <= PRECOMPUTE_LIMIT) {
+                byte[] table = new byte[rooms.length * rooms.length];
+                for (int target = 0; target < rooms.length; target++) {
+                    fillTable(rooms[target], table, target * rooms.length);
+                }
+                componentTables[component] = table;
+            }
+        }
+        this.targetTables = new LinkedHashMap<Integer, byte[]>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
+
+    /**
+     * 查找最短路径
+     * @return 依次要走的方向；起点即终点时为空列表，无法到达时返回null
+     */
+    public List<Direction> findPath(int fromId, int toId) {
+        if (fromId == toId) {
+            return Collections.emptyList();
+        }
+        if (componentOf[fromId] != componentOf[toId]) {
+            return null;
+        }
+        int[] rooms = componentRooms[componentOf[toId]];
+        byte[] table;
+        int offset;
+        if (componentTables[componentOf[toId]] != null) {
+            table = componentTables[componentOf[toId]];
+            offset = localIndex[toId] * rooms.length;
+        } else {
+            table = targetTable(toId);
+            offset = 0;
+        }
+
+        List<Direction> path = new ArrayList<>();
+        int current = fromId;
+        while (current != toId) {
+            byte step = table[offset + localIndex[current]];
+            if (step == NO_STEP) {
+                // 同一连通块内但出口是单向的，走不回去
+                return null;
+            }
+            path.add(DIRECTIONS[step]);
+            current = world.getExit(current, step);
+        }
+        return path;
+    }
+
+    /**
+     * 房间所在连通块的编号（同一连通块内的房间之间可能有路径，不同连通块之间一定没有）
+     */
+    public int getComponent(int roomId) {
+        return componentOf[roomId];
+    }
+
+    public int getComponentCount() {
+        return componentRooms.length;
+    }
+
+    private synchronized byte[] targetTable(int toId) {
+        byte[] table = targetTables.get(toId);
+        if (table == null) {
+            table = new byte[componentRooms[componentOf[toId]].length];
+            fillTable(toId, table, 0);
+            targetTables.put(toId, table);
+        }
+        return table;
+    }
+
+    /**
+     * 从目标房间沿反向出口做广度优先搜索，记录连通块内每个房间走向目标的第一步方向
+     */
+    private void fillTable(int toId, byte[] table, int offset) {
+        int[] rooms = componentRooms[componentOf[toId]];
+        Arrays.fill(table, offset, offset + rooms.length, NO_STEP);
+        int[] queue = new int[rooms.length];
+        boolean[] seen = new boolean[rooms.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = toId;
+        seen[localIndex[toId]] = true;
+        while (head < tail) {
+            int room = queue[head++];
+            for (int i = reverseStart[room]; i < reverseStart[room + 1]; i++) {
+                int from = reverseFrom[i];
+                int local = localIndex[from];
+                if (!seen[local]) {
+                    seen[local] = true;
+                    table[offset + local] = reverseDir[i];
+                    queue[tail++] = from;
+                }
+            }
+        }
+    }
+
+    /**
+     * 按出口（不论方向）划分连通块
+     */
+    private int[][] findComponents(int roomCount) {
+        Arrays.fill(componentOf, -1);
+        List<int[]> components = new ArrayList<>();
+        int[] queue = new int[roomCount];
+        for (int start = 0; start < roomCount; start++) {
+            if (componentOf[start] != -1) {
+                continue;
+            }
+            int component = components.size();
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            componentOf[start] = component;
+            while (head < tail) {
+                int room = queue[head++];
+                localIndex[room] = head - 1;
+                for (int dir = 0; dir < WorldTemplate.DIRECTION_COUNT; dir++) {
+                    int next = world.getExit(room, dir);
+                    if (next != Room.NO_ID && componentOf[next] == -1) {
+                        componentOf[next] = component;
+                        queue[tail++] = next;
+                    }
+                }
+                for (int i = reverseStart[room]; i < reverseStart[room + 1]; i++) {
+                    int next = reverseFrom[i];
+                    if (componentOf[next] == -1) {
+                        componentOf[next] = component;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            components.add(Arrays.copyOf(queue, tail));
+        }
+        return components.toArray(new int[0][]);
+    }
+}
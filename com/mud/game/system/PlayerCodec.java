@@ -0,0 +1,415 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * 玩家存档编解码器
+ * 紧凑的版本化二进制格式，只写入玩家自身拥有的状态：
+ * 房间和任务只记录名称，读取时由地图和任务管理器重新解析，
+ * 不再像Java序列化那样把当前房间连带的整张地图写进存档。
+ *
+ * 文件布局：魔数 "MUDS" | 格式版本 | 头部长度 | 头部 | 玩家数据
+ * 头部包含存档列表所需的摘要（保存时间、角色名、等级、位置、金币），
+ * 可以在不解析玩家数据的情况下读取。
+ * 字符串使用字符串表去重，重复出现的物品名称只写一次。
+ * （版本1没有头部，只在格式版本之后写入保存时间；版本3起在玩家数据末尾写入到访过的房间，
+ * 版本4起在到访记录之前写入所属世界的指纹，世界变化后到访记录作废）
+ */
+public class PlayerCodec {
+    public static final int MAGIC = 0x4D554453; // "MUDS"
+    public static final int VERSION = 4;
+
+    private static final int ITEM_PLAIN = 0;
+    private static final int ITEM_EQUIPMENT = 1;
+
+    /**
+     * 判断文件头是否为本格式
+     * @param head 文件开头的4个字节
+     */
+    public static boolean isCodecFormat(byte[] head) {
+        if (head.length < 4) {
+            return false;
+        }
+        int magic = ((head[0] & 0xFF) << 24) | ((head[1] & 0xFF) << 16) | ((head[2] & 0xFF) << 8) | (head[3] & 0xFF);
+        return magic == MAGIC;
+    }
+
+    /**
+     * 写入玩家存档
+     * @param player 玩家
+     * @param saveTime 保存时间（毫秒）
+     * @param out 输出流
+     */
+    public void write(Player player, long saveTime, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        writeHeader(player, saveTime, data);
+
+        Encoder encoder = new Encoder(data);
+        writePlayer(player, encoder);
+        data.flush();
+    }
+
+    /**
+     * 只读取存档头部，不解析玩家数据
+     * @param in 输入流
+     * @param saveName 存档名称
+     * @return 存档摘要；版本1的存档没有头部，返回null
+     */
+    public SaveHeader readHeader(InputStream in, String saveName) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int version = readPreamble(data);
+        if (version < 2) {
+            return null;
+        }
+        data.readInt(); // 头部长度
+        long saveTime = data.readLong();
+        String playerName = data.readUTF();
+        int level = data.readInt();
+        String roomName = data.readUTF();
+        int money = data.readInt();
+        return new SaveHeader(saveName, playerName, level, roomName, money, saveTime, version);
+    }
+
+    /**
+     * 读取玩家存档
+     * @param in 输入流
+     * @return 玩家对象（当前房间只恢复名称，需由调用方解析为房间对象）
+     */
+    public Player read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int version = readPreamble(data);
+        if (version >= 2) {
+            data.skipNBytes(data.readInt()); // 跳过头部
+        } else {
+            data.readLong(); // 保存时间
+        }
+
+        Decoder decoder = new Decoder(data);
+        return readPlayer(decoder, version);
+    }
+
+    private int readPreamble(DataInputStream data) throws IOException {
+        if (data.readInt() != MAGIC) {
+            throw new IOException("不是有效的存档文件");
+        }
+        int version = data.readUnsignedShort();
+        if (version > VERSION) {
+            throw new IOException("存档版本过新：" + version);
+        }
+        return version;
+    }
+
+    private void writeHeader(Player player, long saveTime, DataOutputStream data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeLong(saveTime);
+        header.writeUTF(player.getName());
+        header.writeInt(player.getLevel());
+        header.writeUTF(nullToEmpty(player.getCurrentRoomName()));
+        header.writeInt(player.getMoney());
+
+        data.writeInt(bytes.size());
+        bytes.writeTo(data);
+    }
+
+    private static String nullToEmpty(String s) {
+        return s != null ? s : "";
+    }
+
+    private void writePlayer(Player player, Encoder out) throws IOException {
+        out.writeString(player.getName());
+        out.writeString(player.getDifficulty().name());
+        out.writeVarInt(player.getMaxHp());
+        out.writeVarInt(player.getHp());
+        out.writeVarInt(player.getAtk());
+        out.writeVarInt(player.getDef());
+        out.writeSignedVarInt(player.getReputation());
+        out.writeVarInt(player.getLevel());
+        out.writeVarInt(player.getExperience());
+        out.writeSignedVarInt(player.getMoney());
+        out.writeString(player.getCurrentRoomName());
+
+        // 战斗属性
+        out.writeString(player.getElement());
+        out.data.writeDouble(player.getDodgeRate());
+        out.data.writeDouble(player.getCritRate());
+        out.data.writeDouble(player.getCritDamage());
+        out.writeSignedVarInt(player.getTempAtk());
+        out.writeSignedVarInt(player.getTempDef());
+        out.data.writeBoolean(player.isAlive());
+
+        List<StatusEffect> effects = player.getStatusEffects();
+        out.writeVarInt(effects.size());
+        for (StatusEffect effect : effects) {
+            out.writeString(effect.getStatus().name());
+            out.writeSignedVarInt(effect.getIntensity());
+            out.writeSignedVarInt(effect.getRemainingTurns());
+        }
+
+        // 背包
+        List<Item> backpack = player.getBackpack();
+        out.writeVarInt(backpack.size());
+        for (Item item : backpack) {
+            writeItem(item, out);
+        }
+
+        // 任务只记录接受过的任务的名称、状态和进度，其余内容来自任务定义
+        TaskLog taskLog = player.getTaskLog();
+        List<Task> touched = new ArrayList<>();
+        for (Task task : TaskManager.getAllTasks()) {
+            if (taskLog.getStatus(task.getId()) != TaskStatus.NOT_ACCEPTED || taskLog.getProgress(task.getId()) != 0) {
+                touched.add(task);
+            }
+        }
+        out.writeVarInt(touched.size());
+        for (Task task : touched) {
+            out.writeString(task.getName());
+            out.writeVarInt(taskLog.getStatus(task.getId()).ordinal());
+            out.writeVarInt(taskLog.getProgress(task.getId()));
+        }
+
+        // NPC血量
+        Map<String, Integer> npcHealth = player.getNpcHealthMap();
+        out.writeVarInt(npcHealth.size());
+        for (Map.Entry<String, Integer> entry : npcHealth.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeSignedVarInt(entry.getValue());
+        }
+
+        // 到访过的房间：所属世界的指纹、数量，然后是升序编号的差值（连续到访的房间每个只占1字节）
+        VisitedRooms visited = player.getVisitedRooms();
+        out.writeLong(visited.getWorld());
+        out.writeVarInt(visited.size());
+        int previous = -1;
+        for (int id = visited.nextVisited(0); id != Room.NO_ID; id = visited.nextVisited(id + 1)) {
+            out.writeVarInt(id - previous);
+            previous = id;
+        }
+    }
+
+    private Player readPlayer(Decoder in, int version) throws IOException {
+        String name = in.readString();
+        GameDifficulty difficulty = GameDifficulty.valueOf(in.readString());
+        Player player = new Player(name, 100, 10, 5, 1, 0, 0, difficulty);
+
+        player.setMaxHp(in.readVarInt());
+        int hp = in.readVarInt();
+        player.setAtk(in.readVarInt());
+        player.setDef(in.readVarInt());
+        player.setReputation(in.readSignedVarInt());
+        player.setLevel(in.readVarInt());
+        player.setExperience(in.readVarInt());
+        player.setMoney(in.readSignedVarInt());
+        player.setCurrentRoomName(in.readString());
+
+        player.setElement(in.readString());
+        player.setDodgeRate(in.data.readDouble());
+        player.setCritRate(in.data.readDouble());
+        player.setCritDamage(in.data.readDouble());
+        player.setTempAtk(in.readSignedVarInt());
+        player.setTempDef(in.readSignedVarInt());
+        boolean alive = in.data.readBoolean();
+        if (hp > 0) {
+            player.setHp(hp);
+        }
+        player.setAlive(alive);
+
+        int effectCount = in.readVarInt();
+        for (int i = 0; i < effectCount; i++) {
+            BattleStatus status = BattleStatus.valueOf(in.readString());
+            int intensity = in.readSignedVarInt();
+            int remaining = in.readSignedVarInt();
+            player.getEffectTable().add(status, intensity, remaining);
+        }
+
+        int itemCount = in.readVarInt();
+        for (int i = 0; i < itemCount; i++) {
+            player.getBackpack().add(readItem(in));
+        }
+
+        TaskStatus[] statuses = TaskStatus.values();
+        int taskCount = in.readVarInt();
+        for (int i = 0; i < taskCount; i++) {
+            String taskName = in.readString();
+            TaskStatus status = statuses[in.readVarInt()];
+            int progress = in.readVarInt();
+
+            Task task = TaskManager.getTask(taskName);
+            if (task == null) {
+                // 任务定义已被移除，忽略该任务
+                continue;
+            }
+            player.getTaskLog().setStatus(task.getId(), status);
+            player.getTaskLog().setProgress(task.getId(), progress);
+        }
+
+        int npcCount = in.readVarInt();
+        for (int i = 0; i < npcCount; i++) {
+            player.updateNpcHealth(in.readString(), in.readSignedVarInt());
+        }
+
+        if (version >= 3) {
+            // 版本3没有记录世界指纹，按未知处理
+            if (version >= 4) {
+                player.getVisitedRooms().setWorld(in.readLong());
+            }
+            int visitedCount = in.readVarInt();
+            int id = -1;
+            for (int i = 0; i < visitedCount; i++) {
+                id += in.readVarInt();
+                player.getVisitedRooms().add(id);
+            }
+        }
+
+        return player;
+    }
+
+    private void writeItem(Item item, Encoder out) throws IOException {
+        boolean equipment = item instanceof Equipment;
+        out.writeVarInt(equipment ? ITEM_EQUIPMENT : ITEM_PLAIN);
+        out.writeString(item.getName());
+        out.writeString(item.getDescription());
+        out.data.writeDouble(item.getEffect());
+        out.writeString(item.getType().name());
+
+        if (equipment) {
+            Equipment eq = (Equipment) item;
+            out.writeString(eq.getGrade().name());
+            out.writeVarInt(eq.getBaseEffect());
+            out.writeVarInt(eq.getLevel());
+            out.writeVarInt(eq.getMaxLevel());
+            out.writeVarInt(eq.getUpgradeCost());
+            out.data.writeDouble(eq.getSuccessRate());
+            out.writeSignedVarInt(eq.getDurability());
+            out.writeVarInt(eq.getMaxDurability());
+            out.data.writeBoolean(eq.isEquipped());
+        }
+    }
+
+    private Item readItem(Decoder in) throws IOException {
+        int kind = in.readVarInt();
+        String name = in.readString();
+        String description = in.readString();
+        double effect = in.data.readDouble();
+        ItemType type = ItemType.valueOf(in.readString());
+
+        if (kind == ITEM_PLAIN) {
+            return new Item(name, description, effect, type);
+        }
+        if (kind != ITEM_EQUIPMENT) {
+            throw new IOException("未知的物品类型：" + kind);
+        }
+
+        EquipmentGrade grade = EquipmentGrade.valueOf(in.readString());
+        int baseEffect = in.readVarInt();
+        int level = in.readVarInt();
+        int maxLevel = in.readVarInt();
+        Equipment eq = new Equipment(name, description, baseEffect, type, grade, maxLevel);
+        eq.setLevel(level);
+        eq.setUpgradeCost(in.readVarInt());
+        eq.setSuccessRate(in.data.readDouble());
+        eq.setDurability(in.readSignedVarInt());
+        eq.setMaxDurability(in.readVarInt());
+        eq.setEquipped(in.data.readBoolean());
+        eq.setEffect(effect);
+        return eq;
+    }
+
+    /**
+     * 带字符串表的写入器
+     * 字符串编码：0 = null，1 = 新字符串（随后是UTF内容），n >= 2 = 引用字符串表第 n-2 项
+     */
+    private static class Encoder {
+        private final DataOutputStream data;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Encoder(DataOutputStream data) {
+            this.data = data;
+        }
+
+        void writeString(String s) throws IOException {
+            if (s == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer index = strings.get(s);
+            if (index != null) {
+                writeVarInt(index + 2);
+                return;
+            }
+            strings.put(s, strings.size());
+            writeVarInt(1);
+            data.writeUTF(s);
+        }
+
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                data.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data.writeByte(value);
+        }
+
+        void writeSignedVarInt(int value) throws IOException {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void writeLong(long value) throws IOException {
+            data.writeLong(value);
+        }
+    }
+
+    /**
+     * 带字符串表的读取器，与 Encoder 对应
+     */
+    private static class Decoder {
+        private final DataInputStream data;
+        private final List<String> strings = new ArrayList<>();
+
+        private Decoder(DataInputStream data) {
+            this.data = data;
+        }
+
+        String readString() throws IOException {
+            int code = readVarInt();
+            if (code == 0) {
+                return null;
+            }
+            if (code == 1) {
+                String s = data.readUTF();
+                strings.add(s);
+                return s;
+            }
+            int index = code - 2;
+            if (index >= strings.size()) {
+                throw new IOException("存档字符串引用无效：" + index);
+            }
+            return strings.get(index);
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = data.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("存档整数编码无效");
+        }
+
+        int readSignedVarInt() throws IOException {
+            int raw = readVarInt();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        long readLong() throws IOException {
+            return data.readLong();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mud.game.system;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * 独立的随机数流
+ * 每场战斗、每次掉落或强化各自使用一个流，流之间不共享生成器状态。
+ * 同一个种子创建的流产生完全相同的随机序列，记录下种子即可复现当时的结果。
+ *
+ * 单个流不是线程安全的，只应在创建它的线程上使用。
+ */
+public class RandomStream implements RandomGenerator {
+    private final String purpose;
+    private final long seed;
+    private final SplittableRandom random;
+
+    RandomStream(String purpose, long seed) {
+        this.purpose = purpose;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * 流的用途（如 "battle"、"upgrade"）
+     */
+    public String getPurpose() {
+        return purpose;
+    }
+
+    /**
+     * 创建该流使用的种子
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public int nextInt() {
+        return random.nextInt();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public int nextInt(int origin, int bound) {
+        return random.nextInt(origin, bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    /**
+     * 把流的用途、种子和使用结果写入服务器日志，需要复现时按种子重放（见 {@link RandomStreams#isLogEnabled()}）
+     * @param outcome 用这个流得出的结果
+     */
+    public void log(String outcome) {
+        if (!RandomStreams.isLogEnabled()) {
+            return;
+        }
+        System.err.println("随机记录: " + this + " " + outcome);
+    }
+
+    @Override
+    public String toString() {
+        return purpose + "#" + Long.toHexString(seed);
+    }
+}
@@ -0,0 +1,74 @@
+package com.mud.game.system;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 随机数流分配器
+ * 根据根种子和分配序号为每个随机事件派生一个独立的 {@link RandomStream}，
+ * 分配只需要一次原子自增，多个会话同时战斗时不会争用同一个生成器。
+ *
+ * 本类不保存分配过的流；需要复现的事件由使用方保存流的种子（战斗的种子记录在 {@link BattleResult} 中，
+ * 掉落和强化通过 {@link RandomStream#log(String)} 写入日志），配合 {@link #replay(String, long)} 可以逐位复现当时的随机结果。
+ */
+public class RandomStreams {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // 随机记录默认只在服务器模式下写入日志，控制台模式下不打扰玩家；-Dmud.randomLog=on/off 可以强制开启或关闭
+    private static final String LOG_MODE = System.getProperty("mud.randomLog", "");
+
+    private static volatile long rootSeed = mix64(System.currentTimeMillis() ^ System.nanoTime());
+    private static final AtomicLong counter = new AtomicLong();
+
+    private RandomStreams() {
+    }
+
+    /**
+     * 分配一个新的随机数流
+     * @param purpose 用途，用于在日志中区分不同的随机事件
+     */
+    public static RandomStream open(String purpose) {
+        long seed = mix64(rootSeed + counter.getAndIncrement() * GOLDEN_GAMMA);
+        return new RandomStream(purpose, seed);
+    }
+
+    /**
+     * 用记录的种子重新创建随机数流
+     */
+    public static RandomStream replay(String purpose, long seed) {
+        return new RandomStream(purpose, seed);
+    }
+
+    /**
+     * 设置根种子并重置分配序号，之后分配的流的种子序列完全确定（用于测试和模拟）
+     */
+    public static void setRootSeed(long seed) {
+        rootSeed = seed;
+        counter.set(0);
+    }
+
+    public static long getRootSeed() {
+        return rootSeed;
+    }
+
+    /**
+     * 是否把战斗、掉落和强化的种子写入日志
+     */
+    public static boolean isLogEnabled() {
+        if ("on".equalsIgnoreCase(LOG_MODE)) {
+            return true;
+        }
+        if ("off".equalsIgnoreCase(LOG_MODE)) {
+            return false;
+        }
+        return GameConsole.isSessionThread();
+    }
+
+    /**
+     * 64位混合函数（与 SplittableRandom 的种子混合相同），使相邻序号派生出无关的种子
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
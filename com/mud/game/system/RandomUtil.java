@@ -1,24 +1,35 @@
 package com.mud.game.system;
 
-import java.util.Random;
 import java.util.List;
 import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
 /**
  * 随机工具类
  * 封装游戏中所有的随机行为操作，提供统一的随机数生成和随机选择功能
+ *
+ * 每个线程使用各自的随机数流（由 {@link RandomStreams} 分配），线程之间不争用生成器。
+ * 需要复现的随机事件（战斗、掉落、强化）应通过 {@link RandomStreams#open(String)} 使用独立的流。
  */
 public class RandomUtil {
     
-    // 单例Random实例，避免重复创建Random对象
-    private static final Random RANDOM = new Random();
+    // 每个线程的日常随机数流（对话、动画等无需复现的随机行为）
+    private static final ThreadLocal<RandomStream> STREAM =
+            ThreadLocal.withInitial(() -> RandomStreams.open("ambient"));
+    
+    /**
+     * 获取当前线程的随机数生成器，供需要直接使用生成器的模块使用
+     */
+    public static RandomGenerator generator() {
+        return STREAM.get();
+    }
     
     /**
      * 获取[0,1)之间的随机浮点数
      * 替代Math.random()
      */
     public static double nextDouble() {
-        return RANDOM.nextDouble();
+        return STREAM.get().nextDouble();
     }
     
     /**
@@ -26,7 +37,7 @@ public class RandomUtil {
      * @param bound 上限（不包含）
      */
     public static int nextInt(int bound) {
-        return RANDOM.nextInt(bound);
+        return STREAM.get().nextInt(bound);
     }
     
     /**
@@ -38,7 +49,7 @@ public class RandomUtil {
         if (min >= max) {
             throw new IllegalArgumentException("最小值必须小于最大值");
         }
-        return min + RANDOM.nextInt(max - min);
+        return min + STREAM.get().nextInt(max - min);
     }
     
     /**
@@ -50,7 +61,7 @@ public class RandomUtil {
         if (array == null || array.length == 0) {
             return null;
         }
-        return array[RANDOM.nextInt(array.length)];
+        return array[STREAM.get().nextInt(array.length)];
     }
     
     /**
@@ -62,7 +73,7 @@ public class RandomUtil {
         if (list == null || list.isEmpty()) {
             return null;
         }
-        return list.get(RANDOM.nextInt(list.size()));
+        return list.get(STREAM.get().nextInt(list.size()));
     }
     
     /**
@@ -74,7 +85,7 @@ public class RandomUtil {
         if (probability < 0 || probability > 1) {
             throw new IllegalArgumentException("概率必须在0到1之间");
         }
-        return RANDOM.nextDouble() < probability;
+        return STREAM.get().nextDouble() < probability;
     }
     
     /**
@@ -94,7 +105,7 @@ public class RandomUtil {
         }
         
         // 随机生成一个0到总权重之间的值
-        double randomValue = RANDOM.nextDouble() * totalWeight;
+        double randomValue = STREAM.get().nextDouble() * totalWeight;
         
         // 根据权重选择索引
         double currentWeight = 0;
@@ -114,14 +125,16 @@ public class RandomUtil {
      * @return true或false
      */
     public static boolean nextBoolean() {
-        return RANDOM.nextBoolean();
+        return STREAM.get().nextBoolean();
     }
     
     /**
      * 设置随机数种子，用于测试时复现特定随机结果
+     * 重置根种子并让当前线程重新分配随机数流，之后所有新分配的流都由该种子决定
      * @param seed 随机数种子
      */
     public static void setSeed(long seed) {
-        RANDOM.setSeed(seed);
+        RandomStreams.setRootSeed(seed);
+        STREAM.remove();
     }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.Room;
+import java.util.Arrays;
+
+/**
+ * 房间名称到房间编号的索引
+ * 名称按编号存放在数组中，用开放寻址的整数哈希表查找，
+ * 每个房间只占名称字符串本身和两个数组槽位，适合上百万个房间的世界。
+ */
+final class RoomNameIndex {
+    private String[] names;
+    private int[] table; // 槽位中存放 编号+1，0 表示空槽
+    private int size;
+
+    RoomNameIndex() {
+        this.names = new String[64];
+        this.table = new int[128];
+    }
+
+    /**
+     * 登记一个新房间
+     * @return 分配的编号，名称已存在时返回 Room.NO_ID
+     */
+    int add(String name) {
+        int slot = find(name);
+        if (table[slot] != 0) {
+            return Room.NO_ID;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        int id = size++;
+        names[id] = name;
+        table[slot] = id + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * @return 房间编号，不存在时返回 Room.NO_ID
+     */
+    int get(String name) {
+        return table[find(name)] - 1;
+    }
+
+    String name(int id) {
+        return names[id];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 加载完成后释放多余的容量
+     */
+    void trim() {
+        names = Arrays.copyOf(names, size);
+    }
+
+    private int find(String name) {
+        int mask = table.length - 1;
+        int slot = mix(name.hashCode()) & mask;
+        while (table[slot] != 0 && !names[table[slot] - 1].equals(name)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(names[id].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,107 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.*;
+import java.io.*;
+
+/**
+ * 存档格式基准测试
+ * 对比旧的Java序列化存档与 PlayerCodec 二进制存档的文件大小和保存/加载耗时。
+ * 用法：java com.mud.game.system.SaveBenchmark [迭代次数]
+ */
+public class SaveBenchmark {
+    private static final int WARMUP = 200;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        MapManager mapManager = new MapManager(GameDifficulty.NORMAL);
+        TaskManager taskManager = new TaskManager();
+        Player player = createSamplePlayer(mapManager, taskManager);
+        PlayerCodec codec = new PlayerCodec();
+
+        byte[] legacy = writeLegacy(player);
+        byte[] binary = writeCodec(codec, player);
+
+        System.out.println("=== 存档格式基准测试 ===");
+        System.out.println("迭代次数: " + iterations);
+        System.out.printf("存档大小: Java序列化 %d 字节, 二进制格式 %d 字节 (%.1f%%)%n",
+                legacy.length, binary.length, binary.length * 100.0 / legacy.length);
+
+        for (int i = 0; i < WARMUP; i++) {
+            writeLegacy(player);
+            readLegacy(legacy);
+            writeCodec(codec, player);
+            codec.read(new ByteArrayInputStream(binary));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            writeLegacy(player);
+        }
+        long legacySave = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            readLegacy(legacy);
+        }
+        long legacyLoad = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            writeCodec(codec, player);
+        }
+        long codecSave = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            codec.read(new ByteArrayInputStream(binary));
+        }
+        long codecLoad = System.nanoTime() - start;
+
+        System.out.printf("保存耗时: Java序列化 %.1f 微秒/次, 二进制格式 %.1f 微秒/次%n",
+                legacySave / 1000.0 / iterations, codecSave / 1000.0 / iterations);
+        System.out.printf("加载耗时: Java序列化 %.1f 微秒/次, 二进制格式 %.1f 微秒/次%n",
+                legacyLoad / 1000.0 / iterations, codecLoad / 1000.0 / iterations);
+    }
+
+    /**
+     * 创建一个处于游戏中期状态的示例玩家
+     */
+    private static Player createSamplePlayer(MapManager mapManager, TaskManager taskManager) {
+        Player player = new Player("基准测试", 100, 10, 5, 5, 1200, 850, GameDifficulty.NORMAL);
+        player.setCurrentRoom(mapManager.getStartRoom());
+        taskManager.assignAllTasks(player);
+
+        player.addItem(new Equipment("新手剑", "一把基础的长剑", 5, ItemType.WEAPON, EquipmentGrade.COMMON, 3));
+        player.addItem(new Equipment("新手护甲", "一套基础的护甲", 3, ItemType.ARMOR, EquipmentGrade.COMMON, 3));
+        for (int i = 0; i < 10; i++) {
+            player.addItem(new Item("治疗药水", "可以恢复生命的药水", 20, ItemType.MEDICINE));
+        }
+        for (Task task : taskManager.getMainTasks()) {
+            player.getTaskLog().setStatus(task.getId(), TaskStatus.IN_PROGRESS);
+        }
+        player.updateNpcHealth("野狼", 0);
+        player.updateNpcHealth("哥布林", 35);
+        return player;
+    }
+
+    private static byte[] writeLegacy(Player player) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(player);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Player readLegacy(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Player) ois.readObject();
+        }
+    }
+
+    private static byte[] writeCodec(PlayerCodec codec, Player player) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.write(player, System.currentTimeMillis(), bytes);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,235 @@
+package com.mud.game.system;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 存档目录索引
+ * 在存档目录下维护一个 catalog.idx 文件，记录每个存档的摘要信息，
+ * 列出存档和查看存档详情时只读取索引，不再遍历目录或读取存档内容。
+ *
+ * 索引文件是追加写入的日志：每次保存追加一条 PUT 记录，删除追加一条 DEL 记录，
+ * 失效记录过多时重写为紧凑的快照。索引丢失或损坏时会扫描存档目录重建。
+ */
+public class SaveCatalog {
+    private static final String CATALOG_FILE = "catalog.idx";
+    private static final int MAGIC = 0x4D554443; // "MUDC"
+    private static final int VERSION = 1;
+    private static final int OP_PUT = 1;
+    private static final int OP_DELETE = 2;
+    // 日志记录数超过有效条目数的倍数时进行压缩
+    private static final int COMPACT_FACTOR = 2;
+    private static final int COMPACT_MIN_RECORDS = 64;
+
+    private static final Map<File, SaveCatalog> CATALOGS = new ConcurrentHashMap<>();
+
+    private final File directory;
+    private final File catalogFile;
+    private final String extension;
+    private final Function<File, SaveHeader> headerReader;
+    private Map<String, SaveHeader> entries;
+    private int journalRecords;
+
+    private SaveCatalog(File directory, String extension, Function<File, SaveHeader> headerReader) {
+        this.directory = directory;
+        this.catalogFile = new File(directory, CATALOG_FILE);
+        this.extension = extension;
+        this.headerReader = headerReader;
+    }
+
+    /**
+     * 获取存档目录对应的索引（同一目录在进程内共享一个实例）
+     * @param directory 存档目录
+     * @param extension 存档文件扩展名
+     * @param headerReader 重建索引时从存档文件读取摘要的方法，读取失败返回null
+     */
+    public static SaveCatalog forDirectory(File directory, String extension, Function<File, SaveHeader> headerReader) {
+        return CATALOGS.computeIfAbsent(directory.getAbsoluteFile(),
+                dir -> new SaveCatalog(dir, extension, headerReader));
+    }
+
+    /**
+     * 所有存档名称（按首次保存的顺序）
+     */
+    public synchronized List<String> getSaveNames() {
+        return new ArrayList<>(entries().keySet());
+    }
+
+    /**
+     * 所有存档摘要（按首次保存的顺序）
+     */
+    public synchronized List<SaveHeader> getHeaders() {
+        return new ArrayList<>(entries().values());
+    }
+
+    /**
+     * 获取存档摘要
+     * 索引中没有记录但存档文件存在时（例如手动复制进来的存档），读取文件并补录
+     */
+    public synchronized SaveHeader getHeader(String saveName) {
+        SaveHeader header = entries().get(saveName);
+        if (header == null) {
+            File saveFile = new File(directory, saveName + extension);
+            if (saveFile.isFile()) {
+                header = headerReader.apply(saveFile);
+                if (header != null) {
+                    put(header);
+                }
+            }
+        }
+        return header;
+    }
+
+    public synchronized boolean contains(String saveName) {
+        return getHeader(saveName) != null;
+    }
+
+    /**
+     * 记录（或更新）一个存档的摘要
+     */
+    public synchronized void put(SaveHeader header) {
+        entries().put(header.getSaveName(), header);
+        appendRecord(OP_PUT, header.getSaveName(), header);
+    }
+
+    /**
+     * 移除一个存档的记录
+     */
+    public synchronized void remove(String saveName) {
+        if (entries().remove(saveName) != null) {
+            appendRecord(OP_DELETE, saveName, null);
+        }
+    }
+
+    private Map<String, SaveHeader> entries() {
+        if (entries == null) {
+            entries = new LinkedHashMap<>();
+            if (!readCatalog()) {
+                rebuild();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 读取索引文件
+     * @return 索引文件是否存在且完整
+     */
+    private boolean readCatalog() {
+        if (!catalogFile.isFile()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(catalogFile)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() != VERSION) {
+                return false;
+            }
+            journalRecords = 0;
+            while (true) {
+                int op = in.read();
+                if (op < 0) {
+                    return true;
+                }
+                String saveName = in.readUTF();
+                if (op == OP_PUT) {
+                    entries.put(saveName, readHeader(in, saveName));
+                } else if (op == OP_DELETE) {
+                    entries.remove(saveName);
+                } else {
+                    return false;
+                }
+                journalRecords++;
+            }
+        } catch (IOException e) {
+            // 截断或损坏的索引：丢弃后重建
+            entries.clear();
+            return false;
+        }
+    }
+
+    /**
+     * 扫描存档目录重建索引（仅在索引缺失或损坏时执行）
+     */
+    private void rebuild() {
+        entries.clear();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(extension));
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                String fileName = file.getName();
+                String saveName = fileName.substring(0, fileName.length() - extension.length());
+                SaveHeader header = headerReader.apply(file);
+                if (header != null) {
+                    entries.put(saveName, header.withSaveName(saveName));
+                }
+            }
+        }
+        writeSnapshot();
+    }
+
+    private void appendRecord(int op, String saveName, SaveHeader header) {
+        if (!catalogFile.isFile()) {
+            writeSnapshot();
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(catalogFile, true)))) {
+            writeRecord(out, op, saveName, header);
+            journalRecords++;
+        } catch (IOException e) {
+            System.err.println("更新存档索引失败: " + e.getMessage());
+            return;
+        }
+
+        if (journalRecords > COMPACT_MIN_RECORDS && journalRecords > entries.size() * COMPACT_FACTOR) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * 将当前全部条目写成新的索引文件（先写临时文件再原子替换）
+     */
+    private void writeSnapshot() {
+        directory.mkdirs();
+        File temp = new File(directory, CATALOG_FILE + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                for (SaveHeader header : entries.values()) {
+                    writeRecord(out, OP_PUT, header.getSaveName(), header);
+                }
+            }
+            Files.move(temp.toPath(), catalogFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journalRecords = entries.size();
+        } catch (IOException e) {
+            System.err.println("写入存档索引失败: " + e.getMessage());
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, int op, String saveName, SaveHeader header) throws IOException {
+        out.writeByte(op);
+        out.writeUTF(saveName);
+        if (op == OP_PUT) {
+            out.writeLong(header.getSaveTime());
+            out.writeUTF(header.getPlayerName());
+            out.writeInt(header.getLevel());
+            out.writeUTF(header.getRoomName());
+            out.writeInt(header.getMoney());
+            out.writeShort(header.getFormatVersion());
+        }
+    }
+
+    private static SaveHeader readHeader(DataInputStream in, String saveName) throws IOException {
+        long saveTime = in.readLong();
+        String playerName = in.readUTF();
+        int level = in.readInt();
+        String roomName = in.readUTF();
+        int money = in.readInt();
+        int formatVersion = in.readUnsignedShort();
+        return new SaveHeader(saveName, playerName, level, roomName, money, saveTime, formatVersion);
+    }
+}
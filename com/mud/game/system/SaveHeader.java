@@ -0,0 +1,85 @@
+package com.mud.game.system;
+
+import java.util.Date;
+
+/**
+ * 存档摘要信息
+ * 列出和查看存档时只需要这些信息，无需读取完整的玩家数据
+ */
+public class SaveHeader {
+    private final String saveName;
+    private final String playerName;
+    private final int level;
+    private final String roomName;
+    private final int money;
+    private final long saveTime;
+    private final int formatVersion;
+
+    public SaveHeader(String saveName, String playerName, int level, String roomName,
+                      int money, long saveTime, int formatVersion) {
+        this.saveName = saveName;
+        // 玩家名和房间名可能尚未设置，索引和存档头部按空字符串保存
+        this.playerName = playerName != null ? playerName : "";
+        this.level = level;
+        this.roomName = roomName != null ? roomName : "";
+        this.money = money;
+        this.saveTime = saveTime;
+        this.formatVersion = formatVersion;
+    }
+
+    /**
+     * 复制一份使用新存档名称的摘要
+     */
+    public SaveHeader withSaveName(String newSaveName) {
+        return new SaveHeader(newSaveName, playerName, level, roomName, money, saveTime, formatVersion);
+    }
+
+    public String getSaveName() {
+        return saveName;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getRoomName() {
+        return roomName;
+    }
+
+    public int getMoney() {
+        return money;
+    }
+
+    public long getSaveTime() {
+        return saveTime;
+    }
+
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    /**
+     * 存档列表中显示的一行摘要
+     */
+    public String getSummary() {
+        return saveName + " - " + playerName + " Lv." + level + " @" + roomName;
+    }
+
+    /**
+     * 显示存档详情
+     */
+    public void show() {
+        System.out.println("=== 存档信息 ===");
+        System.out.println("存档名称: " + saveName);
+        System.out.println("保存时间: " + new Date(saveTime));
+        System.out.println("游戏版本: " + (formatVersion == 0 ? "1.0" : "存档格式 v" + formatVersion));
+        System.out.println("角色名称: " + playerName);
+        System.out.println("角色等级: " + level);
+        System.out.println("当前位置: " + roomName);
+        System.out.println("拥有金币: " + money);
+    }
+}
@@ -0,0 +1,46 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.*;
+
+/**
+ * 任务流程检查
+ * 按新玩家的正常路线（村口 → 村中心 → 森林 → 山洞 → 山顶）移动，确认主线任务“初来乍到”
+ * 在进入村中心时被接受并完成，后续的主线任务随之被触发。
+ * 用法：java com.mud.game.system.TaskFlowCheck，检查失败时以状态码1退出
+ */
+public class TaskFlowCheck {
+
+    public static void main(String[] args) {
+        MapManager mapManager = new MapManager(GameDifficulty.NORMAL);
+        TaskManager taskManager = new TaskManager();
+        Player player = new Player("检查员");
+        player.setCurrentRoom(mapManager.getStartRoom());
+        taskManager.assignAllTasks(player);
+        taskManager.checkTaskTriggers(player, TaskTriggerIndex.ENTER, player.getCurrentRoom().getName());
+
+        try {
+            for (Direction direction : new Direction[] {Direction.EAST, Direction.EAST, Direction.EAST, Direction.NORTH}) {
+                player.move(direction);
+            }
+        } finally {
+            mapManager.close();
+        }
+
+        boolean ok = expect(player, "初来乍到", TaskStatus.COMPLETED)
+                & expect(player, "森林的威胁", TaskStatus.IN_PROGRESS)
+                & expect(player, "山洞的邪恶", TaskStatus.IN_PROGRESS);
+        System.out.println(ok ? "任务流程检查通过" : "任务流程检查失败");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean expect(Player player, String taskName, TaskStatus expected) {
+        TaskStatus actual = player.getTaskStatus(TaskManager.getTask(taskName));
+        if (actual != expected) {
+            System.err.println(taskName + "：期望 " + expected + "，实际 " + actual);
+            return false;
+        }
+        return true;
+    }
+}
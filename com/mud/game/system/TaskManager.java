@@ -2,283 +2,279 @@ package com.mud.game.system;
 
 import com.mud.game.entity.*;
 import java.util.*;
+import java.util.function.Consumer;
 
-import javax.sound.midi.SysexMessage;
-
+/**
+ * 任务管理器
+ * 任务定义和触发索引是不可变的，类加载时创建一次并由所有玩家共享，
+ * 每个玩家只在自己的 {@link TaskLog} 中记录任务状态和进度。
+ */
 public class TaskManager {
-    private List<Task> allTasks;
-    private List<Task> activeTasks;
-    private Map<String, Task> taskMap;
+    // 任务定义，下标即任务编号
+    private static final List<Task> TASKS = defineTasks();
+    private static final Map<String, Task> TASK_MAP = indexByName(TASKS);
+    private static final TaskTriggerIndex TRIGGER_INDEX = TaskTriggerIndex.build(TASKS);
+    
+    private final GameEventBus eventBus;
     
     public TaskManager() {
-        this.allTasks = new ArrayList<>();
-        this.activeTasks = new ArrayList<>();
-        this.taskMap = new HashMap<>();
-        initializeTasks();
+        this(new GameEventBus());
     }
     
-    private void initializeTasks() {
+    /**
+     * @param eventBus 玩家发布事件的事件总线，任务管理器在上面订阅任务进度、触发条件和后续动作
+     */
+    public TaskManager(GameEventBus eventBus) {
+        this.eventBus = eventBus;
+        subscribeObjectives();
+        subscribeTriggers();
+        initializeFollowUps();
+    }
+    
+    private static List<Task> defineTasks() {
+        List<Task> tasks = new ArrayList<>();
+        
         // 主线任务
         TaskObjective mainObjective1 = new TaskObjective("探索村庄，了解基本情况", "explore", "村中心", 1);
         Reward mainReward1 = new Reward(50, 5, null, "完成村庄探索");
-        Task mainTask1 = new Task("初来乍到", "作为新来的冒险者，你需要先了解这个村庄的情况", mainObjective1, mainReward1, true);
+        defineTask(tasks, "初来乍到", "作为新来的冒险者，你需要先了解这个村庄的情况", mainObjective1, mainReward1, true,
+                TaskTriggerIndex.ENTER, "村中心");
         
         TaskObjective mainObjective2 = new TaskObjective("击败森林中的野狼", "kill", "野狼", 1);
         Reward mainReward2 = new Reward(100, 10, new Equipment("狼牙项链", "野狼的牙齿制成的项链，增加攻击力", 3, ItemType.WEAPON, EquipmentGrade.UNCOMMON, 3), "击败野狼的奖励");
-        Task mainTask2 = new Task("森林的威胁", "村庄附近的森林里有野狼出没，威胁着村民的安全", mainObjective2, mainReward2, true);
+        defineTask(tasks, "森林的威胁", "村庄附近的森林里有野狼出没，威胁着村民的安全", mainObjective2, mainReward2, true,
+                TaskTriggerIndex.IN_ROOM, "森林");
         
         TaskObjective mainObjective3 = new TaskObjective("击败山洞中的哥布林", "kill", "哥布林", 1);
         Reward mainReward3 = new Reward(200, 20, new Equipment("精铁剑", "铁匠精心打造的精铁剑", 8, ItemType.WEAPON, EquipmentGrade.RARE, 5), "击败哥布林的奖励");
-        Task mainTask3 = new Task("山洞的邪恶", "山洞中的哥布林是更大的威胁，必须清除", mainObjective3, mainReward3, true);
+        defineTask(tasks, "山洞的邪恶", "山洞中的哥布林是更大的威胁，必须清除", mainObjective3, mainReward3, true,
+                TaskTriggerIndex.IN_ROOM, "山洞");
         
         // 支线任务
         TaskObjective sideObjective1 = new TaskObjective("与村民对话", "talk", "村民", 1);
         Reward sideReward1 = new Reward(25, 2, new Item("草药", "村民给你的草药", 15, ItemType.MEDICINE), "村民的好感");
-        Task sideTask1 = new Task("村民的忧虑", "村民似乎有什么烦恼，去和他聊聊", sideObjective1, sideReward1, false);
+        defineTask(tasks, "村民的忧虑", "村民似乎有什么烦恼，去和他聊聊", sideObjective1, sideReward1, false,
+                TaskTriggerIndex.TALK, "村民");
         
         TaskObjective sideObjective2 = new TaskObjective("收集5个木材", "collect", "木材", 5);
         Reward sideReward2 = new Reward(75, 3, new Item("金币", "村民给你的报酬", 0, ItemType.OTHER), "收集木材的报酬");
-        Task sideTask2 = new Task("收集木材", "铁匠需要一些木材来修理工具", sideObjective2, sideReward2, false);
+        defineTask(tasks, "收集木材", "铁匠需要一些木材来修理工具", sideObjective2, sideReward2, false,
+                TaskTriggerIndex.TALK, "铁匠");
         
         TaskObjective sideObjective3 = new TaskObjective("收集3个草药", "collect", "草药", 3);
         Reward sideReward3 = new Reward(60, 5, new Item("治疗药水", "客栈老板特制的治疗药水", 30, ItemType.MEDICINE), "收集草药的奖励");
-        Task sideTask3 = new Task("采集草药", "客栈老板需要一些草药来制作药剂", sideObjective3, sideReward3, false);
+        defineTask(tasks, "采集草药", "客栈老板需要一些草药来制作药剂", sideObjective3, sideReward3, false,
+                TaskTriggerIndex.TALK, "客栈老板");
         
         // 新增丰富的任务
         TaskObjective newObjective1 = new TaskObjective("调查森林异常", "explore", "森林", 1);
         Reward newReward1 = new Reward(120, 8, new Equipment("猎人徽章", "老猎人给你的徽章，增加防御力", 5, ItemType.ARMOR, EquipmentGrade.UNCOMMON, 3), "调查森林的奖励");
-        Task newTask1 = new Task("森林异变", "森林中的动物行为异常，需要调查原因", newObjective1, newReward1, false);
+        defineTask(tasks, "森林异变", "森林中的动物行为异常，需要调查原因", newObjective1, newReward1, false,
+                TaskTriggerIndex.TALK, "老猎人");
         
         TaskObjective newObjective2 = new TaskObjective("净化山顶", "explore", "山顶", 1);
         Reward newReward2 = new Reward(150, 15, new Equipment("净化法杖", "隐士给你的法杖，可以净化邪恶", 12, ItemType.WEAPON, EquipmentGrade.EPIC, 8), "净化山顶的奖励");
-        Task newTask2 = new Task("山顶净化", "山顶被邪恶力量污染，需要帮助隐士进行净化仪式", newObjective2, newReward2, false);
+        defineTask(tasks, "山顶净化", "山顶被邪恶力量污染，需要帮助隐士进行净化仪式", newObjective2, newReward2, false,
+                TaskTriggerIndex.TALK, "隐士");
         
         TaskObjective newObjective3 = new TaskObjective("保护客栈", "kill", "野狼", 2);
         Reward newReward3 = new Reward(100, 12, new Item("特制美酒", "客栈老板特制的陈年美酒", 25, ItemType.MEDICINE), "保护客栈的奖励");
-        Task newTask3 = new Task("客栈护卫", "客栈老板担心野狼威胁客栈安全，需要你清理森林中的野狼", newObjective3, newReward3, false);
+        defineTask(tasks, "客栈护卫", "客栈老板担心野狼威胁客栈安全，需要你清理森林中的野狼", newObjective3, newReward3, false,
+                TaskTriggerIndex.TALK, "客栈老板");
         
         TaskObjective newObjective4 = new TaskObjective("寻找矿石", "collect", "矿石", 1);
         Reward newReward4 = new Reward(80, 10, new Equipment("精钢护甲", "铁匠用珍贵矿石打造的护甲", 10, ItemType.ARMOR, EquipmentGrade.RARE, 5), "寻找矿石的奖励");
-        Task newTask4 = new Task("珍贵矿石", "铁匠需要山洞中的珍贵矿石来打造高级装备", newObjective4, newReward4, false);
+        defineTask(tasks, "珍贵矿石", "铁匠需要山洞中的珍贵矿石来打造高级装备", newObjective4, newReward4, false,
+                TaskTriggerIndex.TALK, "铁匠");
+        
+        // 连锁任务
+        TaskObjective chainObjective1 = new TaskObjective("与隐士对话", "talk", "隐士", 1);
+        Reward chainReward1 = new Reward(50, 5, null, "隐士的智慧");
+        defineTask(tasks, "隐士的指引", "山顶的隐士似乎知道一些秘密，去和他谈谈", chainObjective1, chainReward1, false,
+                TaskTriggerIndex.TALK, "隐士");
+        
+        TaskObjective chainObjective2 = new TaskObjective("收集净化材料", "collect", "草药", 5);
+        Reward chainReward2 = new Reward(100, 8, new Item("净化粉末", "隐士给你的净化材料", 0, ItemType.OTHER), "收集净化材料");
+        defineTask(tasks, "净化材料", "隐士需要一些特殊的草药来制作净化药剂", chainObjective2, chainReward2, false,
+                TaskTriggerIndex.TALK, "隐士");
         
         // 扩展地图相关任务
         TaskObjective templeObjective = new TaskObjective("参拜古庙", "explore", "古庙", 1);
         Reward templeReward = new Reward(90, 7, new Item("祈福符", "老和尚给你的祈福符，增加幸运值", 0, ItemType.OTHER), "参拜古庙的奖励");
-        Task templeTask = new Task("古庙祈福", "古庙的老和尚邀请你参拜，据说能获得佛祖庇佑", templeObjective, templeReward, false);
+        defineTask(tasks, "古庙祈福", "古庙的老和尚邀请你参拜，据说能获得佛祖庇佑", templeObjective, templeReward, false,
+                TaskTriggerIndex.TALK, "老和尚");
         
         TaskObjective tradeObjective = new TaskObjective("与商人交易", "talk", "旅行商人", 1);
         Reward tradeReward = new Reward(110, 9, new Item("商人的货物", "旅行商人给你的特殊商品", 0, ItemType.OTHER), "与商人交易的奖励");
-        Task tradeTask = new Task("商人的请求", "旅行商人需要一些稀有物品，愿意用珍贵商品交换", tradeObjective, tradeReward, false);
+        defineTask(tasks, "商人的请求", "旅行商人需要一些稀有物品，愿意用珍贵商品交换", tradeObjective, tradeReward, false,
+                TaskTriggerIndex.TALK, "旅行商人");
         
         TaskObjective herbObjective = new TaskObjective("采集稀有草药", "collect", "草药", 5);
         Reward herbReward = new Reward(130, 11, new Item("药师的药剂", "药师特制的强效药剂", 40, ItemType.MEDICINE), "采集草药的奖励");
-        Task herbTask = new Task("稀有草药", "药师需要一些稀有草药来配制特殊药剂", herbObjective, herbReward, false);
+        defineTask(tasks, "稀有草药", "药师需要一些稀有草药来配制特殊药剂", herbObjective, herbReward, false,
+                TaskTriggerIndex.TALK, "药师");
         
         TaskObjective martialObjective = new TaskObjective("通过武师考验", "kill", "竹林盗贼", 1);
         Reward martialReward = new Reward(160, 14, new Item("武师秘籍", "武师传授的秘籍，学会新技能", 0, ItemType.OTHER), "通过考验的奖励");
-        Task martialTask = new Task("武师考验", "武师要求你先证明自己的实力，击败竹林中的盗贼", martialObjective, martialReward, false);
+        defineTask(tasks, "武师考验", "武师要求你先证明自己的实力，击败竹林中的盗贼", martialObjective, martialReward, false,
+                TaskTriggerIndex.TALK, "武师");
         
         TaskObjective lakeObjective = new TaskObjective("调查湖心亭", "explore", "湖心亭", 1);
         Reward lakeReward = new Reward(95, 6, new Item("书生的诗集", "书生给你的诗集，增加文化修养", 0, ItemType.OTHER), "调查湖心亭的奖励");
-        Task lakeTask = new Task("湖心亭之谜", "湖心亭最近出现奇怪的光芒，书生希望你能调查", lakeObjective, lakeReward, false);
+        defineTask(tasks, "湖心亭之谜", "湖心亭最近出现奇怪的光芒，书生希望你能调查", lakeObjective, lakeReward, false,
+                TaskTriggerIndex.TALK, "书生");
         
         TaskObjective bambooObjective = new TaskObjective("驱赶竹林盗贼", "kill", "竹林盗贼", 1);
         Reward bambooReward = new Reward(140, 12, new Item("隐士的信物", "女隐士给你的信物，可以进入神秘地点", 0, ItemType.OTHER), "驱赶盗贼的奖励");
-        Task bambooTask = new Task("竹林清修", "竹林中的盗贼扰乱了隐士的清修，需要你帮忙驱赶", bambooObjective, bambooReward, false);
+        defineTask(tasks, "竹林清修", "竹林中的盗贼扰乱了隐士的清修，需要你帮忙驱赶", bambooObjective, bambooReward, false,
+                TaskTriggerIndex.TALK, "女隐士");
         
         TaskObjective ghostObjective = new TaskObjective("净化废弃小屋", "kill", "怨灵", 1);
         Reward ghostReward = new Reward(170, 16, new Item("净化宝珠", "净化怨灵后获得的宝珠，具有神秘力量", 15, ItemType.OTHER), "净化废弃小屋的奖励");
-        Task ghostTask = new Task("怨灵净化", "废弃小屋中的怨灵需要被净化，才能获得安宁", ghostObjective, ghostReward, false);
+        defineTask(tasks, "怨灵净化", "废弃小屋中的怨灵需要被净化，才能获得安宁", ghostObjective, ghostReward, false,
+                TaskTriggerIndex.TALK, "女隐士");
         
         TaskObjective guardianObjective = new TaskObjective("击败守护灵", "kill", "守护灵", 1);
         Reward guardianReward = new Reward(200, 20, new Item("宝藏钥匙", "守护灵守护的宝藏钥匙", 0, ItemType.OTHER), "击败守护灵的奖励");
-        Task guardianTask = new Task("宝藏守护者", "地下大厅的守护灵守护着珍贵的宝藏，只有击败它才能获得", guardianObjective, guardianReward, false);
-        
-        // 连锁任务
-        TaskObjective chainObjective1 = new TaskObjective("与隐士对话", "talk", "隐士", 1);
-        Reward chainReward1 = new Reward(50, 5, null, "隐士的智慧");
-        Task chainTask1 = new Task("隐士的指引", "山顶的隐士似乎知道一些秘密，去和他谈谈", chainObjective1, chainReward1, false);
-        
-        TaskObjective chainObjective2 = new TaskObjective("收集净化材料", "collect", "草药", 5);
-        Reward chainReward2 = new Reward(100, 8, new Item("净化粉末", "隐士给你的净化材料", 0, ItemType.OTHER), "收集净化材料");
-        Task chainTask2 = new Task("净化材料", "隐士需要一些特殊的草药来制作净化药剂", chainObjective2, chainReward2, false);
-        
-        // 添加所有任务
-        allTasks.add(mainTask1);
-        allTasks.add(mainTask2);
-        allTasks.add(mainTask3);
-        allTasks.add(sideTask1);
-        allTasks.add(sideTask2);
-        allTasks.add(sideTask3);
-        allTasks.add(newTask1);
-        allTasks.add(newTask2);
-        allTasks.add(newTask3);
-        allTasks.add(newTask4);
-        allTasks.add(chainTask1);
-        allTasks.add(chainTask2);
+        defineTask(tasks, "宝藏守护者", "地下大厅的守护灵守护着珍贵的宝藏，只有击败它才能获得", guardianObjective, guardianReward, false,
+                TaskTriggerIndex.TALK, "守护灵");
         
-        // 添加扩展地图任务
-        allTasks.add(templeTask);
-        allTasks.add(tradeTask);
-        allTasks.add(herbTask);
-        allTasks.add(martialTask);
-        allTasks.add(lakeTask);
-        allTasks.add(bambooTask);
-        allTasks.add(ghostTask);
-        allTasks.add(guardianTask);
-        
-        // 添加到任务映射
-        for (Task task : allTasks) {
+        return Collections.unmodifiableList(tasks);
+    }
+    
+    /**
+     * 定义一个任务
+     * @param triggerType 自动接受任务的触发类型（见 {@link TaskTriggerIndex}）
+     * @param triggerTarget 触发目标（房间名或NPC名）
+     */
+    private static void defineTask(List<Task> tasks, String name, String description,
+                                   TaskObjective objective, Reward reward, boolean isMainTask,
+                                   String triggerType, String triggerTarget) {
+        tasks.add(new Task(tasks.size(), name, description, objective, reward, isMainTask, triggerType, triggerTarget));
+    }
+    
+    private static Map<String, Task> indexByName(List<Task> tasks) {
+        Map<String, Task> taskMap = new HashMap<>();
+        for (Task task : tasks) {
             taskMap.put(task.getName(), task);
         }
+        return taskMap;
     }
     
+    /**
+     * 每个任务按目标（类型, 名称）订阅一次，事件只会送达目标匹配的任务
+     */
+    private void subscribeObjectives() {
+        for (Task task : TASKS) {
+            TaskObjective objective = task.getObjective();
+            eventBus.subscribe(eventTypeOf(objective), objective.getTargetName(), event -> advanceTask(task, event));
+        }
+    }
+    
+    private static GameEvent.Type eventTypeOf(TaskObjective objective) {
+        switch (objective.getTargetType()) {
+            case "kill":
+                return GameEvent.Type.KILL;
+            case "collect":
+                return GameEvent.Type.COLLECT;
+            case "talk":
+                return GameEvent.Type.TALK;
+            case "explore":
+                return GameEvent.Type.ENTER;
+            default:
+                throw new IllegalArgumentException("未知的任务目标类型：" + objective.getTargetType());
+        }
+    }
+    
+    /**
+     * 进入房间和与NPC对话时检查任务触发（在任务进度更新之后执行）
+     */
+    private void subscribeTriggers() {
+        eventBus.subscribe(GameEvent.Type.ENTER,
+                event -> checkTaskTriggers(event.getPlayer(), TaskTriggerIndex.ENTER, event.getTarget()));
+        eventBus.subscribe(GameEvent.Type.TALK,
+                event -> checkTaskTriggers(event.getPlayer(), TaskTriggerIndex.TALK, event.getTarget()));
+    }
+    
+    /**
+     * 登记任务完成后的后续动作
+     */
+    private void initializeFollowUps() {
+        // 后续任务
+        onCompleted("初来乍到", player -> checkTaskTriggers(player, TaskTriggerIndex.ENTER, "森林"));
+        onCompleted("森林的威胁", player -> checkTaskTriggers(player, TaskTriggerIndex.ENTER, "山洞"));
+        // 完成森林调查后，隐士会出现新的对话
+        onCompleted("森林异变", player -> checkTaskTriggers(player, TaskTriggerIndex.TALK, "隐士"));
+        // 隐士指引完成后，触发净化材料任务
+        onCompleted("隐士的指引", player -> checkTaskTriggers(player, TaskTriggerIndex.TALK, "隐士"));
+        // 收集完净化材料后，触发山顶净化任务
+        onCompleted("净化材料", player -> checkTaskTriggers(player, TaskTriggerIndex.TALK, "隐士"));
+        // 完成竹林清修后，触发怨灵净化任务
+        onCompleted("竹林清修", player -> checkTaskTriggers(player, TaskTriggerIndex.TALK, "女隐士"));
+        // 完成怨灵净化后，触发宝藏守护者任务
+        onCompleted("怨灵净化", player -> checkTaskTriggers(player, TaskTriggerIndex.TALK, "守护灵"));
+        
+        // 完成任务后相关NPC的关系改善
+        onCompleted("客栈护卫", player -> improveRelationship(player, "客栈老板", 20));
+        onCompleted("珍贵矿石", player -> improveRelationship(player, "铁匠", 15));
+        onCompleted("武师考验", player -> improveRelationship(player, "武师", 25));
+        onCompleted("古庙祈福", player -> improveRelationship(player, "老和尚", 20));
+        onCompleted("商人的请求", player -> improveRelationship(player, "旅行商人", 15));
+    }
+    
+    /**
+     * 检查并触发任务
+     * 只检查索引中与（触发类型, 目标）匹配的任务，以及与玩家当前房间关联的任务
+     */
     public void checkTaskTriggers(Player player, String triggerType, String targetName) {
-        //for (Task task : allTasks) {
-        for (Task task : player.getTasks()) {
-            if (task.getStatus() == TaskStatus.NOT_ACCEPTED) {
-                // 检查是否应该触发任务
-                boolean shouldTrigger = false;
-                
-                switch (task.getName()) {
-                    case "初来乍到":
-                        shouldTrigger = triggerType.equals("enter") && targetName.equals("村中心");
-                        break;
-                    case "森林的威胁":
-                        shouldTrigger = player.getCurrentRoom() != null && player.getCurrentRoom().getName().equals("森林");
-                        break;
-                    case "山洞的邪恶":
-                        shouldTrigger = player.getCurrentRoom() != null && player.getCurrentRoom().getName().equals("山洞");
-                        break;
-                    case "村民的忧虑":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("村民");
-                        break;
-                    case "收集木材":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("铁匠");
-                        break;
-                    case "采集草药":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("客栈老板");
-                        break;
-                    // 新增任务触发条件
-                    case "森林异变":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("老猎人");
-                        break;
-                    case "山顶净化":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("隐士");
-                        break;
-                    case "客栈护卫":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("客栈老板");
-                        break;
-                    case "珍贵矿石":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("铁匠");
-                        break;
-                    case "隐士的指引":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("隐士");
-                        break;
-                    case "净化材料":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("隐士");
-                        break;
-                    // 扩展地图任务触发条件
-                    case "古庙祈福":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("老和尚");
-                        break;
-                    case "商人的请求":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("旅行商人");
-                        break;
-                    case "稀有草药":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("药师");
-                        break;
-                    case "武师考验":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("武师");
-                        break;
-                    case "湖心亭之谜":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("书生");
-                        break;
-                    case "竹林清修":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("女隐士");
-                        break;
-                    case "怨灵净化":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("女隐士");
-                        break;
-                    case "宝藏守护者":
-                        shouldTrigger = triggerType.equals("talk") && targetName.equals("守护灵");
-                        break;
-                }
-
-                if (shouldTrigger&&task.getStatus()==TaskStatus.NOT_ACCEPTED) {
-
-                    player.acceptTask(task.getName());
-                    // 使用新的acceptTask方法接受任务
-                    
-                    //task.acceptTask();
-                }
+        acceptTriggered(player, TRIGGER_INDEX.lookup(triggerType, targetName));
+        
+        Room currentRoom = player.getCurrentRoom();
+        if (currentRoom != null) {
+            acceptTriggered(player, TRIGGER_INDEX.lookup(TaskTriggerIndex.IN_ROOM, currentRoom.getName()));
+        }
+    }
+    
+    private void acceptTriggered(Player player, int[] taskIds) {
+        for (int taskId : taskIds) {
+            Task task = TASKS.get(taskId);
+            if (player.getTaskStatus(task) == TaskStatus.NOT_ACCEPTED) {
+                player.acceptTask(task);
+                creditCurrentRoom(player, task);
             }
         }
     }
     
+    /**
+     * 刚接受的探索任务的目标就是玩家所在的房间时，立即计入这次到达
+     * 进入房间的事件先分发给任务目标、再检查触发，触发时接受的任务错过了这次事件
+     */
+    private void creditCurrentRoom(Player player, Task task) {
+        TaskObjective objective = task.getObjective();
+        Room currentRoom = player.getCurrentRoom();
+        if (eventTypeOf(objective) == GameEvent.Type.ENTER && currentRoom != null
+                && currentRoom.getName().equals(objective.getTargetName())) {
+            advanceTask(task, new GameEvent(GameEvent.Type.ENTER, player, currentRoom.getName()));
+        }
+    }
+    
+    /**
+     * 将玩家接入任务管理器所在的事件总线（任务定义是共享的，无需为玩家复制）
+     * @param player 玩家对象
+     * @return 玩家可用的任务数量
+     */
+    public int assignAllTasks(Player player) {
+        player.setEventBus(eventBus);
+        return TASKS.size();
+    }
+
     /**
      * 接受任务
      * @param player 玩家对象
      * @param task 任务对象
      */
     public void acceptTask(Player player, Task task) {
-        // 先检查任务是否已经存在于玩家的任务列表中
-        boolean taskExists = false;
-        for (Task existingTask : player.getTasks()) {
-            if (existingTask.getName().equals(task.getName())) {
-                taskExists = true;
-                break;
-            }
-        }
-        
-        // 如果任务不存在于玩家任务列表中，创建副本并添加
-        if (!taskExists) {
-            // 创建任务目标的副本
-            TaskObjective originalObjective = task.getObjective();
-            TaskObjective objectiveCopy = new TaskObjective(
-                originalObjective.getDescription(),
-                originalObjective.getTargetType(),
-                originalObjective.getTargetName(),
-                originalObjective.getTargetCount()
-            );
-            
-            // 创建奖励的副本（如果奖励不为null）
-            Reward originalReward = task.getReward();
-            Reward rewardCopy = null;
-            if (originalReward != null) {
-                rewardCopy = new Reward(
-                    originalReward.getExperience(),
-                    originalReward.getReputation(),
-                    originalReward.getItem(),
-                    originalReward.getDescription()
-                );
-            }
-            
-            // 创建任务副本
-            Task taskCopy = new Task(
-                task.getName(),
-                task.getDescription(),
-                objectiveCopy,
-                rewardCopy,
-                task.isMainTask()
-            );
-            
-            // 将任务副本添加到玩家任务列表
-            player.getTasks().add(taskCopy);
-        }
-        
-        // 使用任务名称调用Player类的acceptTask方法
         player.acceptTask(task.getName());
-        
-        // 将已接受的任务添加到activeTasks列表
-        for (Task playerTask : player.getTasks()) {
-            if (playerTask.getName().equals(task.getName()) && 
-                playerTask.getStatus() == TaskStatus.IN_PROGRESS && 
-                !activeTasks.contains(playerTask)) {
-                activeTasks.add(playerTask);
-                break;
-            }
-        }
     }
     
     /**
@@ -297,107 +293,76 @@ public class TaskManager {
         }
     }
     
-    public void updateTaskProgress(Player player, String targetType, String targetName, int amount) {
-        // 调用Player的任务更新方法来处理任务进度
-        player.updateTaskProgress(targetType, targetName, amount);
-        
-        // 同步更新activeTasks列表，移除已完成的任务
-        // 创建副本以避免迭代时修改异常
-        List<Task> completedTasks = new ArrayList<>();
-        for (Task task : activeTasks) {
-            if (task.getStatus() == TaskStatus.COMPLETED) {
-                completedTasks.add(task);
-            }
+    /**
+     * 推进玩家在某个任务上的进度，任务完成时发布任务完成事件
+     */
+    private void advanceTask(Task task, GameEvent event) {
+        Player player = event.getPlayer();
+        TaskLog log = player.getTaskLog();
+        if (log.getStatus(task.getId()) != TaskStatus.IN_PROGRESS) {
+            return;
         }
-        
-        // 从activeTasks中移除已完成的任务并触发后续任务
-        for (Task completedTask : completedTasks) {
-            activeTasks.remove(completedTask);
-            checkFollowUpTasks(player, completedTask);
+        task.updateProgress(log, event.getAmount());
+        if (task.checkComplete(player)) {
+            eventBus.publish(new GameEvent(GameEvent.Type.TASK_COMPLETED, player, task.getName()));
         }
     }
     
-    private void checkFollowUpTasks(Player player, Task completedTask) {
-        // 根据完成的任务触发后续任务
-        switch (completedTask.getName()) {
-            case "初来乍到":
-                checkTaskTriggers(player, "enter", "森林");
-                break;
-            case "森林的威胁":
-                checkTaskTriggers(player, "enter", "山洞");
-                break;
-            case "村民的忧虑":
-                // 村民任务完成后，可能会触发其他任务
-                break;
-            case "森林异变":
-                // 完成森林调查后，隐士会出现新的对话
-                checkTaskTriggers(player, "talk", "隐士");
-                break;
-            case "隐士的指引":
-                // 隐士指引完成后，触发净化材料任务
-                checkTaskTriggers(player, "talk", "隐士");
-                break;
-            case "净化材料":
-                // 收集完净化材料后，触发山顶净化任务
-                checkTaskTriggers(player, "talk", "隐士");
-                break;
-            case "客栈护卫":
-                // 完成客栈护卫后，客栈老板关系改善
-                if (player.getCurrentRoom().getNpc() != null && player.getCurrentRoom().getNpc().getName().equals("客栈老板")) {
-                    player.getCurrentRoom().getNpc().modifyRelationship(20);
-                }
-                break;
-            case "珍贵矿石":
-                // 完成珍贵矿石任务后，铁匠关系改善
-                if (player.getCurrentRoom().getNpc() != null && player.getCurrentRoom().getNpc().getName().equals("铁匠")) {
-                    player.getCurrentRoom().getNpc().modifyRelationship(15);
-                }
-                break;
-            // 扩展地图任务后续
-            case "竹林清修":
-                // 完成竹林清修后，触发怨灵净化任务
-                checkTaskTriggers(player, "talk", "女隐士");
-                break;
-            case "怨灵净化":
-                // 完成怨灵净化后，触发宝藏守护者任务
-                checkTaskTriggers(player, "talk", "守护灵");
-                break;
-            case "武师考验":
-                // 完成武师考验后，武师关系改善
-                if (player.getCurrentRoom().getNpc() != null && player.getCurrentRoom().getNpc().getName().equals("武师")) {
-                    player.getCurrentRoom().getNpc().modifyRelationship(25);
-                }
-                break;
-            case "古庙祈福":
-                // 完成古庙祈福后，老和尚关系改善
-                if (player.getCurrentRoom().getNpc() != null && player.getCurrentRoom().getNpc().getName().equals("老和尚")) {
-                    player.getCurrentRoom().getNpc().modifyRelationship(20);
-                }
-                break;
-            case "商人的请求":
-                // 完成商人的请求后，商人关系改善
-                if (player.getCurrentRoom().getNpc() != null && player.getCurrentRoom().getNpc().getName().equals("旅行商人")) {
-                    player.getCurrentRoom().getNpc().modifyRelationship(15);
-                }
-                break;
+    private void onCompleted(String taskName, Consumer<Player> followUp) {
+        eventBus.subscribe(GameEvent.Type.TASK_COMPLETED, taskName, event -> followUp.accept(event.getPlayer()));
+    }
+    
+    private void improveRelationship(Player player, String npcName, int amount) {
+        Room currentRoom = player.getCurrentRoom();
+        if (currentRoom != null && currentRoom.getNpc() != null && currentRoom.getNpc().getName().equals(npcName)) {
+            currentRoom.getNpc().modifyRelationship(amount);
         }
     }
     
-    public Task getTask(String taskName) {
-        return taskMap.get(taskName);
+    /**
+     * 按名称查找任务定义
+     * @return 任务定义，不存在时返回null
+     */
+    public static Task getTask(String taskName) {
+        return TASK_MAP.get(taskName);
     }
     
-    public List<Task> getAllTasks() {
-        return new ArrayList<>(allTasks);
+    /**
+     * 按编号查找任务定义
+     * @return 任务定义，编号无效时返回null
+     */
+    public static Task getTask(int taskId) {
+        return taskId >= 0 && taskId < TASKS.size() ? TASKS.get(taskId) : null;
+    }
+    
+    /**
+     * 所有任务定义（按任务编号排列，只读）
+     */
+    public static List<Task> getAllTasks() {
+        return TASKS;
     }
     
-    public List<Task> getActiveTasks() {
-        return new ArrayList<>(activeTasks);
+    public GameEventBus getEventBus() {
+        return eventBus;
+    }
+    
+    public static int getTaskCount() {
+        return TASKS.size();
+    }
+    
+    public List<Task> getActiveTasks(Player player) {
+        List<Task> activeTasks = new ArrayList<>();
+        for (Task task : TASKS) {
+            if (player.getTaskStatus(task) == TaskStatus.IN_PROGRESS) {
+                activeTasks.add(task);
+            }
+        }
+        return activeTasks;
     }
     
     public List<Task> getMainTasks() {
         List<Task> mainTasks = new ArrayList<>();
-        for (Task task : allTasks) {
+        for (Task task : TASKS) {
             if (task.isMainTask()) {
                 mainTasks.add(task);
             }
@@ -407,7 +372,7 @@ public class TaskManager {
     
     public List<Task> getSideTasks() {
         List<Task> sideTasks = new ArrayList<>();
-        for (Task task : allTasks) {
+        for (Task task : TASKS) {
             if (!task.isMainTask()) {
                 sideTasks.add(task);
             }
@@ -415,26 +380,39 @@ public class TaskManager {
         return sideTasks;
     }
     
-    public void showTaskProgress() {
+    /**
+     * 玩家是否完成了所有主线任务
+     */
+    public boolean isMainStoryCompleted(Player player) {
+        for (Task task : TASKS) {
+            if (task.isMainTask() && player.getTaskStatus(task) != TaskStatus.COMPLETED) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public void showTaskProgress(Player player) {
         System.out.println("\n=== 任务进度 ===");
         
+        List<Task> activeTasks = getActiveTasks(player);
         if (activeTasks.isEmpty()) {
             System.out.println("暂无进行中的任务。");
         } else {
             System.out.println("进行中的任务：");
             for (Task task : activeTasks) {
-                System.out.println(task);
+                System.out.println(task.describe(player.getTaskLog()));
             }
         }
         
         // 显示已完成的任务
         int completedCount = 0;
-        for (Task task : allTasks) {
-            if (task.getStatus() == TaskStatus.COMPLETED) {
+        for (Task task : TASKS) {
+            if (player.getTaskStatus(task) == TaskStatus.COMPLETED) {
                 completedCount++;
             }
         }
         
-        System.out.println("已完成任务：" + completedCount + "/" + allTasks.size());
+        System.out.println("已完成任务：" + completedCount + "/" + TASKS.size());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.Task;
+import java.util.*;
+
+/**
+ * 任务触发索引
+ * 由任务定义中声明的触发条件生成，按（触发类型, 目标名称）直接查到可能被触发的任务编号，
+ * 触发检查的开销只与匹配的任务数有关，与任务总数无关。
+ */
+public class TaskTriggerIndex {
+    /** 进入房间 */
+    public static final String ENTER = "enter";
+    /** 与NPC对话 */
+    public static final String TALK = "talk";
+    /** 玩家位于某个房间时，任何触发检查都会触发 */
+    public static final String IN_ROOM = "room";
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, Map<String, int[]>> index;
+
+    private TaskTriggerIndex() {
+        this.index = new HashMap<>();
+    }
+
+    /**
+     * 按任务定义中的触发条件建立索引（没有触发条件的任务不登记）
+     * @param tasks 任务定义，下标即任务编号
+     */
+    public static TaskTriggerIndex build(List<Task> tasks) {
+        TaskTriggerIndex triggerIndex = new TaskTriggerIndex();
+        for (Task task : tasks) {
+            if (task.getTriggerType() != null && task.getTriggerTarget() != null) {
+                triggerIndex.register(task.getId(), task.getTriggerType(), task.getTriggerTarget());
+            }
+        }
+        return triggerIndex;
+    }
+
+    private void register(int taskId, String triggerType, String targetName) {
+        Map<String, int[]> byTarget = index.computeIfAbsent(triggerType, type -> new HashMap<>());
+        int[] taskIds = byTarget.getOrDefault(targetName, NONE);
+        int[] grown = Arrays.copyOf(taskIds, taskIds.length + 1);
+        grown[taskIds.length] = taskId;
+        byTarget.put(targetName, grown);
+    }
+
+    /**
+     * 查找可能被触发的任务（按任务编号顺序）
+     * @return 任务编号，没有匹配时返回空数组；返回的数组不能修改
+     */
+    public int[] lookup(String triggerType, String targetName) {
+        Map<String, int[]> byTarget = index.get(triggerType);
+        if (byTarget == null || targetName == null) {
+            return NONE;
+        }
+        return byTarget.getOrDefault(targetName, NONE);
+    }
+}
@@ -0,0 +1,421 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.Direction;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 程序化世界生成器
+ * 按种子生成任意规模（一万到千万个房间）的世界，用于基准测试和长时间运行测试。
+ * 生成结果是 world.txt 格式的文本，可以写到文件，也可以不落盘直接交给 {@link WorldLoader}：
+ * 启动参数 -Dmud.world=generated:房间数[:种子] 会让 MapManager 使用生成的世界。
+ *
+ * 世界由若干区域组成，区域按网格排列，每个区域约 AREA_SIZE 个房间：
+ * - 区域内的房间排成小网格，用随机生成树保证连通，再随机保留一部分其余的相邻通道，平均出口数约为2.4
+ * - 相邻区域的入口房间（区域内0号房间）之间用斜向出口相连
+ * - 每个房间平均约1件物品；NPC出现概率约30%，离起点越远（按世界大小折算为0到10级危险度），敌对NPC越多、越强
+ * 文本按区域逐个生成，内存占用与世界规模无关；相同的房间数和种子总是生成相同的世界。
+ * 任意一个区域都可以单独重新生成，加载后的世界只常驻房间名称和出口，房间内容用到时再生成。
+ *
+ * 用法：java com.mud.game.system.WorldGenerator 房间数 [随机种子] [输出文件]
+ */
+public class WorldGenerator {
+    /** MapManager 世界参数中表示生成世界的前缀 */
+    public static final String SPEC_PREFIX = "generated:";
+    public static final long DEFAULT_SEED = 20240101L;
+
+    // 每个区域的房间数
+    private static final int AREA_SIZE = 100;
+    // 生成树以外的相邻通道保留的概率
+    private static final double EXTRA_EXIT_CHANCE = 0.2;
+    private static final double NPC_CHANCE = 0.3;
+    private static final double EQUIPMENT_CHANCE = 0.02;
+    // 每个房间的物品数量分布（0、1、2、3件）
+    private static final double[] ITEM_COUNT_WEIGHTS = {0.35, 0.35, 0.2, 0.1};
+    private static final int MAX_DANGER = 10;
+    private static final long AREA_SEED_MIX = 0x9E3779B97F4A7C15L;
+
+    private static final Theme[] THEMES = {
+        new Theme("迷雾森林",
+            new String[] {"高大的树木遮天蔽日，林间弥漫着淡淡的雾气。", "林间小路被落叶覆盖，不时传来鸟鸣声。", "一片幽深的密林，树根盘错，难以前行。"},
+            new String[] {"草药|MEDICINE|20|森林中采到的草药", "木材|OTHER|0|森林中的木材", "山果|MEDICINE|12|野生的山果", "蘑菇|MEDICINE|8|林间的蘑菇"},
+            new String[] {"樵夫", "猎户"}, new String[] {"野狼", "黑熊", "毒蛇"}),
+        new Theme("青石山谷",
+            new String[] {"两侧山壁陡峭，谷底铺满了青色的石块。", "山谷中溪水潺潺，空气清新。", "狭窄的谷道蜿蜒向前，风声呼啸。"},
+            new String[] {"矿石|OTHER|0|山谷中的矿石", "灵草|MEDICINE|30|散发着微光的灵草", "溪水|OTHER|0|清澈的溪水"},
+            new String[] {"采药人", "隐士"}, new String[] {"山贼", "岩蜥"}),
+        new Theme("幽暗沼泽",
+            new String[] {"泥泞的沼泽地冒着气泡，散发出腐败的气味。", "芦苇丛生，脚下的地面松软湿滑。", "浑浊的水面上漂浮着枯枝败叶。"},
+            new String[] {"沼泽草|MEDICINE|10|沼泽中生长的草药", "毒囊|OTHER|5|毒虫的毒囊", "芦苇|OTHER|0|沼泽中的芦苇"},
+            new String[] {"渔夫"}, new String[] {"沼泽鳄", "毒蟾", "水鬼"}),
+        new Theme("荒原",
+            new String[] {"一望无际的荒原，寸草不生。", "干裂的土地上散落着动物的白骨。", "狂风卷起沙尘，遮住了视线。"},
+            new String[] {"兽骨|OTHER|0|不知名野兽的骨头", "仙人掌|MEDICINE|15|可以解渴的仙人掌"},
+            new String[] {"行脚商人"}, new String[] {"秃鹫", "沙匪", "荒原狼"}),
+        new Theme("古城废墟",
+            new String[] {"残破的城墙诉说着昔日的繁华。", "倒塌的房屋间长满了杂草。", "一条荒废的街道，石板路已经开裂。"},
+            new String[] {"旧书|OTHER|20|泛黄的古书", "铜镜|OTHER|35|古老的铜镜", "古钱|OTHER|10|锈迹斑斑的铜钱"},
+            new String[] {"考古学者", "守墓人"}, new String[] {"怨灵", "盗墓贼", "骷髅兵"}),
+        new Theme("地下洞窟",
+            new String[] {"阴暗潮湿的洞窟，水滴从钟乳石上滴落。", "洞壁上闪烁着微弱的荧光。", "狭窄的通道只容一人通过。"},
+            new String[] {"火把|OTHER|5|照明的火把", "灵石|OTHER|40|蕴含灵力的石头", "符文石|OTHER|60|刻有符文的石头"},
+            new String[] {"矿工"}, new String[] {"哥布林", "蝙蝠群", "洞穴巨蛛"}),
+    };
+
+    private static final String[] FRIENDLY_DIALOGUE = {
+        "你好，旅行者。", "这一带不太平，小心点。", "往前走还有很远的路。", "要是累了就歇歇脚吧。", "听说更远的地方有宝物。"
+    };
+    private static final String[] PERSONALITIES = {"友善", "沉默", "健谈", "谨慎"};
+    private static final String[] HOSTILE_PERSONALITIES = {"凶猛", "狡猾", "贪婪"};
+    private static final String[] EQUIPMENT = {
+        "锈剑|WEAPON|4|一把生锈的长剑", "皮甲|ARMOR|3|简单的皮甲", "短刀|WEAPON|6|锋利的短刀", "锁子甲|ARMOR|5|结实的锁子甲"
+    };
+
+    private final int roomCount;
+    private final long seed;
+    private final int areaCount;
+    private final int areaGridWidth;
+
+    // 生成统计
+    private long exitCount;
+    private long itemCount;
+    private long npcCount;
+    private long hostileCount;
+
+    public WorldGenerator(int roomCount, long seed) {
+        if (roomCount < 1) {
+            throw new IllegalArgumentException("房间数必须大于0: " + roomCount);
+        }
+        this.roomCount = roomCount;
+        this.seed = seed;
+        this.areaCount = (roomCount + AREA_SIZE - 1) / AREA_SIZE;
+        this.areaGridWidth = (int) Math.ceil(Math.sqrt(areaCount));
+    }
+
+    /**
+     * 解析世界参数 generated:房间数[:种子]
+     * @return 生成器，参数不是生成世界时返回null
+     */
+    public static WorldGenerator fromSpec(String spec) {
+        if (spec == null || !spec.startsWith(SPEC_PREFIX)) {
+            return null;
+        }
+        String[] parts = spec.substring(SPEC_PREFIX.length()).split(":");
+        try {
+            int rooms = Integer.parseInt(parts[0]);
+            long seed = parts.length > 1 ? Long.parseLong(parts[1]) : DEFAULT_SEED;
+            return new WorldGenerator(rooms, seed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的生成世界参数: " + spec + "（格式：generated:房间数[:种子]）");
+        }
+    }
+
+    /**
+     * 生成世界模板（不写文件）
+     * 房间模板按区域分页，被丢弃的区域用到时由生成器重新生成
+     */
+    public static WorldTemplate generate(int roomCount, long seed) {
+        WorldGenerator generator = new WorldGenerator(roomCount, seed);
+        try (Reader reader = generator.openReader()) {
+            return WorldLoader.load(reader, generator.getSource(), generator::openArea);
+        } catch (IOException e) {
+            // 生成的内容总是合法的，出现错误说明生成器本身有问题
+            throw new IllegalStateException("生成世界失败: " + e.getMessage(), e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("用法：java com.mud.game.system.WorldGenerator 房间数 [随机种子] [输出文件]");
+            return;
+        }
+        int rooms = Integer.parseInt(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        File output = new File(args.length > 2 ? args[2] : "world-" + rooms + ".txt");
+
+        WorldGenerator generator = new WorldGenerator(rooms, seed);
+        long start = System.nanoTime();
+        try (Reader in = generator.openReader();
+             Writer out = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(output), 1 << 16), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[1 << 14];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+        }
+        System.out.println("=== 世界生成 ===");
+        System.out.printf("房间 %d, 区域 %d, 出口 %d (平均 %.2f), 物品 %d (平均 %.2f), NPC %d (敌对 %d)%n",
+                rooms, generator.areaCount, generator.exitCount, (double) generator.exitCount / rooms,
+                generator.itemCount, (double) generator.itemCount / rooms, generator.npcCount, generator.hostileCount);
+        System.out.printf("用时 %.2f 秒，已写入 %s (%d 字节)%n",
+                (System.nanoTime() - start) / 1e9, output.getPath(), output.length());
+    }
+
+    /**
+     * 来源名称（与 -Dmud.world 的参数格式相同）
+     */
+    public String getSource() {
+        return SPEC_PREFIX + roomCount + ":" + seed;
+    }
+
+    /**
+     * 以 world.txt 格式逐个区域输出世界内容
+     */
+    public Reader openReader() {
+        return new GeneratedReader();
+    }
+
+    /**
+     * 单独生成一个区域的内容（与 openReader 输出中的该区域相同）
+     */
+    public Reader openArea(int area) {
+        StringBuilder out = new StringBuilder(AREA_SIZE * 160);
+        writeArea(area, out);
+        return new StringReader(out.toString());
+    }
+
+    /**
+     * 生成一个区域的全部记录
+     */
+    private void writeArea(int area, StringBuilder out) {
+        RandomStream random = areaRandom(area);
+        Theme theme = THEMES[random.nextInt(THEMES.length)];
+        String areaName = theme.name + "第" + area + "区";
+        int size = Math.min(AREA_SIZE, roomCount - area * AREA_SIZE);
+        int width = (int) Math.ceil(Math.sqrt(size));
+        int maxDistance = Math.max(1, 2 * (areaGridWidth - 1));
+        int danger = (area % areaGridWidth + area / areaGridWidth) * MAX_DANGER / maxDistance;
+
+        // 区域内的出口：exits[房间 * 方向数 + 方向] = 目标房间序号
+        int[] exits = new int[size * WorldTemplate.DIRECTION_COUNT];
+        Arrays.fill(exits, -1);
+        connectArea(size, width, random, exits);
+
+        out.append("area|").append(areaName).append('\n');
+        for (int local = 0; local < size; local++) {
+            String name = roomName(areaName, local);
+            out.append("room|").append(name).append('|')
+               .append(theme.descriptions[random.nextInt(theme.descriptions.length)]).append('\n');
+            writeItems(theme, random, out);
+            if (random.nextDouble() < NPC_CHANCE) {
+                writeNpc(theme, danger, random, out);
+            }
+            for (Direction direction : Direction.values()) {
+                int target = exits[local * WorldTemplate.DIRECTION_COUNT + direction.ordinal()];
+                if (target >= 0) {
+                    writeExit(direction, roomName(areaName, target), out);
+                }
+            }
+            if (local == 0) {
+                writeGateways(area, out);
+            }
+            out.append('\n');
+        }
+    }
+
+    /**
+     * 在区域网格上生成随机生成树，并按概率保留其余的相邻通道（双向）
+     */
+    private void connectArea(int size, int width, RandomStream random, int[] exits) {
+        // 候选通道：编号*2 为向东，编号*2+1 为向南
+        int[] candidates = new int[size * 2];
+        int count = 0;
+        for (int room = 0; room < size; room++) {
+            if ((room + 1) % width != 0 && room + 1 < size) {
+                candidates[count++] = room * 2;
+            }
+            if (room + width < size) {
+                candidates[count++] = room * 2 + 1;
+            }
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = candidates[i];
+            candidates[i] = candidates[j];
+            candidates[j] = swap;
+        }
+
+        int[] parent = new int[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < count; i++) {
+            int from = candidates[i] / 2;
+            boolean east = candidates[i] % 2 == 0;
+            int to = east ? from + 1 : from + width;
+            int rootFrom = find(parent, from);
+            int rootTo = find(parent, to);
+            boolean treeEdge = rootFrom != rootTo;
+            if (treeEdge) {
+                parent[rootFrom] = rootTo;
+            }
+            if (treeEdge || random.nextDouble() < EXTRA_EXIT_CHANCE) {
+                Direction forward = east ? Direction.EAST : Direction.SOUTH;
+                Direction back = east ? Direction.WEST : Direction.NORTH;
+                exits[from * WorldTemplate.DIRECTION_COUNT + forward.ordinal()] = to;
+                exits[to * WorldTemplate.DIRECTION_COUNT + back.ordinal()] = from;
+            }
+        }
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    /**
+     * 区域入口房间与四周相邻区域入口之间的斜向出口
+     */
+    private void writeGateways(int area, StringBuilder out) {
+        int x = area % areaGridWidth;
+        if (x + 1 < areaGridWidth && area + 1 < areaCount) {
+            writeExit(Direction.NORTHEAST, gatewayName(area + 1), out);
+        }
+        if (x > 0) {
+            writeExit(Direction.SOUTHWEST, gatewayName(area - 1), out);
+        }
+        if (area + areaGridWidth < areaCount) {
+            writeExit(Direction.SOUTHEAST, gatewayName(area + areaGridWidth), out);
+        }
+        if (area >= areaGridWidth) {
+            writeExit(Direction.NORTHWEST, gatewayName(area - areaGridWidth), out);
+        }
+    }
+
+    private void writeItems(Theme theme, RandomStream random, StringBuilder out) {
+        double roll = random.nextDouble();
+        int items = 0;
+        while (items < ITEM_COUNT_WEIGHTS.length - 1 && roll >= ITEM_COUNT_WEIGHTS[items]) {
+            roll -= ITEM_COUNT_WEIGHTS[items];
+            items++;
+        }
+        for (int i = 0; i < items; i++) {
+            if (random.nextDouble() < EQUIPMENT_CHANCE) {
+                String[] f = EQUIPMENT[random.nextInt(EQUIPMENT.length)].split("\\|");
+                out.append("equip|").append(f[0]).append('|').append(f[1]).append('|').append(f[2])
+                   .append("|COMMON|3|").append(f[3]).append('\n');
+            } else {
+                out.append("item|").append(theme.items[random.nextInt(theme.items.length)]).append('\n');
+            }
+            itemCount++;
+        }
+    }
+
+    /**
+     * 生成NPC，危险度（0到 MAX_DANGER）越高，敌对的概率越大、属性越强
+     */
+    private void writeNpc(Theme theme, int danger, RandomStream random, StringBuilder out) {
+        double hostileChance = 0.2 + 0.6 * danger / MAX_DANGER;
+        boolean hostile = random.nextDouble() < hostileChance;
+        npcCount++;
+        if (hostile) {
+            hostileCount++;
+            String name = theme.hostileNpcs[random.nextInt(theme.hostileNpcs.length)];
+            int hp = 30 + danger * 12 + random.nextInt(10);
+            int atk = 6 + danger * 3 + random.nextInt(3);
+            out.append("npc|").append(name).append('|').append(hp).append('|').append(atk)
+               .append("|hostile|怪物|").append(HOSTILE_PERSONALITIES[random.nextInt(HOSTILE_PERSONALITIES.length)]).append('\n');
+        } else {
+            String name = theme.friendlyNpcs[random.nextInt(theme.friendlyNpcs.length)];
+            out.append("npc|").append(name).append("|40|5|friendly|").append(name).append('|')
+               .append(PERSONALITIES[random.nextInt(PERSONALITIES.length)]).append('\n');
+            int lines = 1 + random.nextInt(2);
+            for (int i = 0; i < lines; i++) {
+                out.append("say|").append(FRIENDLY_DIALOGUE[random.nextInt(FRIENDLY_DIALOGUE.length)]).append('\n');
+            }
+        }
+    }
+
+    private void writeExit(Direction direction, String target, StringBuilder out) {
+        out.append("exit|").append(direction.name().toLowerCase()).append('|').append(target).append('\n');
+        exitCount++;
+    }
+
+    /**
+     * 区域入口房间的名称（只取决于区域编号和种子，可以在生成相邻区域时计算）
+     */
+    private String gatewayName(int area) {
+        Theme theme = THEMES[areaRandom(area).nextInt(THEMES.length)];
+        return roomName(theme.name + "第" + area + "区", 0);
+    }
+
+    private static String roomName(String areaName, int local) {
+        return areaName + "-" + local;
+    }
+
+    private RandomStream areaRandom(int area) {
+        return RandomStreams.replay("worldgen", seed + area * AREA_SEED_MIX);
+    }
+
+    /**
+     * 按需逐个区域生成文本的 Reader
+     */
+    private final class GeneratedReader extends Reader {
+        private final StringBuilder buffer = new StringBuilder(AREA_SIZE * 160);
+        private int position;
+        private int nextArea;
+        private boolean headerWritten;
+
+        @Override
+        public int read(char[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            while (position >= buffer.length()) {
+                if (!fill()) {
+                    return -1;
+                }
+            }
+            int n = Math.min(length, buffer.length() - position);
+            buffer.getChars(position, position + n, target, offset);
+            position += n;
+            return n;
+        }
+
+        private boolean fill() {
+            buffer.setLength(0);
+            position = 0;
+            if (!headerWritten) {
+                headerWritten = true;
+                buffer.append("# 生成的世界：").append(roomCount).append("个房间，种子 ").append(seed).append('\n');
+                buffer.append("start|").append(gatewayName(0)).append("\n\n");
+                return true;
+            }
+            if (nextArea >= areaCount) {
+                return false;
+            }
+            writeArea(nextArea++, buffer);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            nextArea = areaCount;
+            buffer.setLength(0);
+            position = 0;
+        }
+    }
+
+    /**
+     * 区域主题：房间描述、物品和NPC的候选
+     */
+    private static final class Theme {
+        private final String name;
+        private final String[] descriptions;
+        private final String[] items;
+        private final String[] friendlyNpcs;
+        private final String[] hostileNpcs;
+
+        private Theme(String name, String[] descriptions, String[] items, String[] friendlyNpcs, String[] hostileNpcs) {
+            this.name = name;
+            this.descriptions = descriptions;
+            this.items = items;
+            this.friendlyNpcs = friendlyNpcs;
+            this.hostileNpcs = hostileNpcs;
+        }
+    }
+}
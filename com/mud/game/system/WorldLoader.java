@@ -0,0 +1,622 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 世界定义加载器
+ * 逐行流式解析世界文件（格式见 world.txt 开头的说明），边读边创建房间模板，
+ * 出口允许引用后面才定义的房间，全部读完后统一校验。
+ * 文件中的错误会附带行号一起报告，有任何错误时不返回不完整的世界。
+ * 加载结果与难度无关，NPC属性在世界实例创建NPC时才按难度调整。
+ *
+ * 房间按 area 记录分成区域（没有 area 记录时每 MAX_AREA_ROOMS 个房间自动分为一个区域）。
+ * 来源可以重新读取单个区域时（世界文件、生成器），只常驻房间名称、出口和前若干个区域的房间模板，
+ * 其余区域用到时再由 {@link #loadArea} 重新解析。
+ */
+public class WorldLoader {
+    // 报告的错误条数上限
+    private static final int MAX_ERRORS = 20;
+    /** 没有 area 记录时一个区域最多包含的房间数，超过后自动开始新的区域 */
+    static final int MAX_AREA_ROOMS = 256;
+
+    private final RoomNameIndex names;
+    private final List<String> errors;
+    // 重复出现的文本（描述、物品、对话）只保留一份
+    private final Map<String, String> strings;
+    // 重新解析单个区域时为所属的世界，完整加载时为null
+    private final WorldTemplate reloadWorld;
+    // 完整加载时保留房间模板的区域数
+    private final int retainAreas;
+
+    // 出口邻接表：房间编号 * 方向数 + 方向序号 -> 目标房间编号
+    private int[] adjacency;
+    // 指向后面才定义的房间、读完后再解析的出口
+    private int[] pendingSlots;
+    private String[] pendingTargets;
+    private int[] pendingLines;
+    private int pendingCount;
+
+    // 区域的首个房间编号、名称、在文件中的字节位置，以及保留的房间模板
+    private int[] areaStarts;
+    private long[] areaOffsets;
+    private final List<String> areaNames;
+    private final List<RoomTemplate[]> areaPages;
+    private List<RoomTemplate> areaRooms;
+    private String nextAreaName;
+
+    private String startRoomName;
+    private int startLine;
+    private RoomSpec currentRoom;
+    private NpcSpec currentNpc;
+    private int lineNumber;
+    private long lineOffset;
+
+    private WorldLoader(WorldTemplate reloadWorld, int retainAreas) {
+        this.names = new RoomNameIndex();
+        this.errors = new ArrayList<>();
+        this.strings = new HashMap<>();
+        this.reloadWorld = reloadWorld;
+        this.retainAreas = retainAreas;
+        this.adjacency = new int[64 * WorldTemplate.DIRECTION_COUNT];
+        Arrays.fill(adjacency, Room.NO_ID);
+        this.pendingSlots = new int[64];
+        this.pendingTargets = new String[64];
+        this.pendingLines = new int[64];
+        this.areaStarts = new int[16];
+        this.areaOffsets = new long[16];
+        this.areaNames = new ArrayList<>();
+        this.areaPages = new ArrayList<>();
+    }
+
+    /**
+     * 加载世界（全部房间模板常驻内存）
+     * @param reader 世界文件内容
+     * @param source 来源名称（用于错误信息）
+     * @throws IOException 读取失败或文件内容有错误
+     */
+    public static WorldTemplate load(Reader reader, String source) throws IOException {
+        return load(reader, source, null);
+    }
+
+    /**
+     * 加载世界
+     * @param areaSource 重新读取单个区域的方式，区域编号必须与 reader 中的区域一致；
+     *                   为null时全部房间模板常驻内存
+     */
+    public static WorldTemplate load(Reader reader, String source, WorldTemplate.AreaSource areaSource) throws IOException {
+        WorldLoader loader = new WorldLoader(null, areaSource != null ? WorldTemplate.RETAINED_AREAS : Integer.MAX_VALUE);
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+        String line;
+        while ((line = in.readLine()) != null) {
+            loader.lineNumber++;
+            loader.parseLine(line);
+            if (loader.errors.size() >= MAX_ERRORS) {
+                break;
+            }
+        }
+        return loader.finish(source, areaSource);
+    }
+
+    /**
+     * 从文件加载世界
+     * 记录每个区域在文件中的字节位置，只保留前若干个区域的房间模板，其余区域用到时再从文件中读取
+     */
+    public static WorldTemplate load(File file) throws IOException {
+        WorldLoader loader = new WorldLoader(null, WorldTemplate.RETAINED_AREAS);
+        long modified = file.lastModified();
+        long length;
+        try (Utf8LineReader in = new Utf8LineReader(new FileInputStream(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                loader.lineNumber++;
+                loader.lineOffset = in.getLineOffset();
+                loader.parseLine(line);
+                if (loader.errors.size() >= MAX_ERRORS) {
+                    break;
+                }
+            }
+            length = in.getLineOffset();
+        }
+        long[] offsets = loader.areaOffsets;
+        int areaCount = loader.areaNames.size();
+        return loader.finish(file.getPath(), area -> {
+            if (file.length() != length || file.lastModified() != modified) {
+                throw new IOException("世界文件 " + file.getPath() + " 在加载后被修改");
+            }
+            long end = area + 1 < areaCount ? offsets[area + 1] : length;
+            byte[] bytes = new byte[(int) (end - offsets[area])];
+            try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+                in.seek(offsets[area]);
+                in.readFully(bytes);
+            }
+            return new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * 重新解析一个区域的房间模板
+     * 区域内容中的 start、area、exit 记录被忽略，房间编号按名称从世界中查找
+     * @param reader 区域的内容（由 AreaSource 提供）
+     * @return 按房间编号排列的区域内房间模板
+     * @throws IOException 读取失败，或内容与加载世界时不一致
+     */
+    static RoomTemplate[] loadArea(WorldTemplate world, int area, Reader reader) throws IOException {
+        WorldLoader loader = new WorldLoader(world, 0);
+        loader.areaRooms = new ArrayList<>(world.getAreaSize(area));
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        while ((line = in.readLine()) != null && loader.errors.isEmpty()) {
+            loader.lineNumber++;
+            loader.parseLine(line);
+        }
+        loader.finishRoom();
+
+        int first = world.getAreaStart(area);
+        RoomTemplate[] page = new RoomTemplate[world.getAreaSize(area)];
+        for (RoomTemplate room : loader.areaRooms) {
+            int local = room.getId() - first;
+            if (local < 0 || local >= page.length) {
+                loader.errors.add("房间 " + room.getName() + " 不属于区域 " + world.getAreaName(area));
+                break;
+            }
+            page[local] = room;
+        }
+        for (int local = 0; local < page.length && loader.errors.isEmpty(); local++) {
+            if (page[local] == null) {
+                loader.errors.add("缺少房间 " + world.getRoomName(first + local));
+            }
+        }
+        if (!loader.errors.isEmpty()) {
+            throw new IOException("重新加载区域 " + world.getAreaName(area) + " 失败：" + loader.errors.get(0));
+        }
+        return page;
+    }
+
+    private void parseLine(String line) {
+        if (line.isEmpty() || line.charAt(0) == '#' || line.isBlank()) {
+            return;
+        }
+        int separator = line.indexOf('|');
+        String type = separator < 0 ? line.trim() : line.substring(0, separator);
+        switch (type) {
+            case "start":
+                String[] start = fields(line, 2);
+                if (start != null && reloadWorld == null) {
+                    startRoomName = start[1];
+                    startLine = lineNumber;
+                }
+                break;
+            case "area":
+                String[] area = fields(line, 2);
+                if (area != null && reloadWorld == null) {
+                    finishRoom();
+                    nextAreaName = area[1];
+                }
+                break;
+            case "room":
+                parseRoom(line);
+                break;
+            case "item":
+                parseItem(line);
+                break;
+            case "equip":
+                parseEquipment(line);
+                break;
+            case "npc":
+                parseNpc(line);
+                break;
+            case "say":
+                String[] say = fields(line, 2);
+                if (say != null && requireNpc()) {
+                    currentNpc.dialogue.add(shared(say[1]));
+                }
+                break;
+            case "task":
+                String[] task = fields(line, 3);
+                if (task != null && requireNpc()) {
+                    currentNpc.tasks.put(task[1], shared(task[2]));
+                }
+                break;
+            case "exit":
+                if (reloadWorld == null) {
+                    parseExit(line);
+                }
+                break;
+            default:
+                error("未知的记录类型: " + type);
+        }
+    }
+
+    private void parseRoom(String line) {
+        String[] f = fields(line, 3);
+        if (f == null) {
+            return;
+        }
+        finishRoom();
+        int id;
+        if (reloadWorld != null) {
+            id = reloadWorld.getRoomId(f[1]);
+            if (id == Room.NO_ID) {
+                error("房间不存在: " + f[1]);
+                return;
+            }
+        } else {
+            if (nextAreaName != null || areaRooms == null || areaRooms.size() >= MAX_AREA_ROOMS) {
+                // 没有 area 记录时沿用上一个区域的名称，第一个区域以其第一个房间命名
+                beginArea(nextAreaName != null ? nextAreaName
+                        : areaRooms != null ? areaNames.get(areaNames.size() - 1) : f[1]);
+            }
+            id = names.add(f[1]);
+            if (id == Room.NO_ID) {
+                error("房间重复定义: " + f[1]);
+                return;
+            }
+            if (names.size() * WorldTemplate.DIRECTION_COUNT > adjacency.length) {
+                int oldLength = adjacency.length;
+                adjacency = Arrays.copyOf(adjacency, oldLength * 2);
+                Arrays.fill(adjacency, oldLength, adjacency.length, Room.NO_ID);
+            }
+        }
+        currentRoom = new RoomSpec(id, f[1], shared(f[2]));
+    }
+
+    private void parseItem(String line) {
+        String[] f = fields(line, 5);
+        if (f == null || !requireRoom()) {
+            return;
+        }
+        ItemType type = parseEnum(ItemType.class, f[2], "物品类型");
+        Double effect = parseDouble(f[3]);
+        if (type != null && effect != null) {
+            currentRoom.items.add(new Item(shared(f[1]), shared(f[4]), effect, type));
+        }
+    }
+
+    private void parseEquipment(String line) {
+        String[] f = fields(line, 7);
+        if (f == null || !requireRoom()) {
+            return;
+        }
+        ItemType type = parseEnum(ItemType.class, f[2], "物品类型");
+        Integer effect = parseInt(f[3]);
+        EquipmentGrade grade = parseEnum(EquipmentGrade.class, f[4], "装备品质");
+        Integer maxLevel = parseInt(f[5]);
+        if (type != null && effect != null && grade != null && maxLevel != null) {
+            currentRoom.items.add(new Equipment(shared(f[1]), shared(f[6]), effect, type, grade, maxLevel));
+        }
+    }
+
+    private void parseNpc(String line) {
+        String[] f = fields(line, 7);
+        if (f == null || !requireRoom()) {
+            return;
+        }
+        finishNpc();
+        if (currentRoom.npc != null) {
+            error("房间 " + currentRoom.name + " 已经有NPC，每个房间最多一个NPC");
+            return;
+        }
+        Integer hp = parseInt(f[2]);
+        Integer atk = parseInt(f[3]);
+        boolean hostile = "hostile".equals(f[4]);
+        if (!hostile && !"friendly".equals(f[4])) {
+            error("NPC态度必须是 hostile 或 friendly: " + f[4]);
+            return;
+        }
+        if (hp != null && atk != null) {
+            currentNpc = new NpcSpec(shared(f[1]), hp, atk, hostile, shared(f[5]), shared(f[6]));
+        }
+    }
+
+    private void parseExit(String line) {
+        String[] f = fields(line, 3);
+        if (f == null || !requireRoom()) {
+            return;
+        }
+        Direction direction = parseEnum(Direction.class, f[1], "方向");
+        if (direction == null) {
+            return;
+        }
+        int bit = 1 << direction.ordinal();
+        if ((currentRoom.exitMask & bit) != 0) {
+            error("房间 " + currentRoom.name + " 的出口重复: " + direction);
+            return;
+        }
+        currentRoom.exitMask |= bit;
+        int slot = currentRoom.id * WorldTemplate.DIRECTION_COUNT + direction.ordinal();
+        int target = names.get(f[2]);
+        if (target != Room.NO_ID) {
+            adjacency[slot] = target;
+            return;
+        }
+        if (pendingCount == pendingSlots.length) {
+            pendingSlots = Arrays.copyOf(pendingSlots, pendingCount * 2);
+            pendingTargets = Arrays.copyOf(pendingTargets, pendingCount * 2);
+            pendingLines = Arrays.copyOf(pendingLines, pendingCount * 2);
+        }
+        pendingSlots[pendingCount] = slot;
+        pendingTargets[pendingCount] = f[2];
+        pendingLines[pendingCount] = lineNumber;
+        pendingCount++;
+    }
+
+    /**
+     * 从当前行开始一个新的区域
+     */
+    private void beginArea(String name) {
+        finishArea();
+        int area = areaNames.size();
+        if (area == areaStarts.length) {
+            areaStarts = Arrays.copyOf(areaStarts, area * 2);
+            areaOffsets = Arrays.copyOf(areaOffsets, area * 2);
+        }
+        areaStarts[area] = names.size();
+        areaOffsets[area] = lineOffset;
+        areaNames.add(name);
+        areaRooms = new ArrayList<>();
+        nextAreaName = null;
+    }
+
+    /**
+     * 区域的房间写完后决定是否保留其房间模板
+     */
+    private void finishArea() {
+        finishRoom();
+        if (areaRooms != null) {
+            areaPages.add(areaPages.size() < retainAreas ? areaRooms.toArray(new RoomTemplate[0]) : null);
+            areaRooms = null;
+        }
+    }
+
+    /**
+     * NPC的对话和任务写完后创建NPC模板并放入当前房间
+     */
+    private void finishNpc() {
+        if (currentNpc == null) {
+            return;
+        }
+        NpcSpec spec = currentNpc;
+        currentNpc = null;
+        currentRoom.npc = new NpcTemplate(spec.name, spec.hp, spec.atk, spec.hostile, spec.profession,
+                spec.personality, spec.dialogue.toArray(new String[0]), spec.tasks);
+    }
+
+    /**
+     * 房间的记录写完后创建房间模板
+     */
+    private void finishRoom() {
+        finishNpc();
+        if (currentRoom == null) {
+            return;
+        }
+        RoomSpec spec = currentRoom;
+        currentRoom = null;
+        areaRooms.add(new RoomTemplate(spec.id, spec.name, spec.description, spec.items, spec.npc));
+    }
+
+    private WorldTemplate finish(String source, WorldTemplate.AreaSource areaSource) throws IOException {
+        finishArea();
+        if (errors.size() < MAX_ERRORS) {
+            for (int i = 0; i < pendingCount; i++) {
+                int target = names.get(pendingTargets[i]);
+                if (target == Room.NO_ID) {
+                    errors.add("第" + pendingLines[i] + "行: 出口指向不存在的房间: " + pendingTargets[i]);
+                } else {
+                    adjacency[pendingSlots[i]] = target;
+                }
+            }
+        }
+
+        if (startRoomName == null) {
+            errors.add("缺少初始房间（start 记录）");
+        } else if (names.get(startRoomName) == Room.NO_ID) {
+            errors.add("第" + startLine + "行: 初始房间不存在: " + startRoomName);
+        }
+
+        if (!errors.isEmpty()) {
+            StringBuilder message = new StringBuilder("世界文件 " + source + " 有" + errors.size() + "处错误：");
+            for (int i = 0; i < Math.min(errors.size(), MAX_ERRORS); i++) {
+                message.append("\n  ").append(errors.get(i));
+            }
+            throw new IOException(message.toString());
+        }
+        names.trim();
+        int areaCount = areaNames.size();
+        return new WorldTemplate(source, names, Arrays.copyOf(adjacency, names.size() * WorldTemplate.DIRECTION_COUNT),
+                startRoomName, Arrays.copyOf(areaStarts, areaCount), areaNames.toArray(new String[0]),
+                areaPages.toArray(new RoomTemplate[0][]), areaSource);
+    }
+
+    /**
+     * 按 | 拆分字段，最后一个字段包含行的剩余部分
+     * @return 字段数组，字段数不足时记录错误并返回null
+     */
+    private String[] fields(String line, int count) {
+        String[] result = new String[count];
+        int begin = 0;
+        for (int i = 0; i < count - 1; i++) {
+            int end = line.indexOf('|', begin);
+            if (end < 0) {
+                error("字段数不足，需要" + count + "个字段");
+                return null;
+            }
+            result[i] = line.substring(begin, end);
+            begin = end + 1;
+        }
+        result[count - 1] = line.substring(begin);
+        return result;
+    }
+
+    private String shared(String value) {
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    private boolean requireRoom() {
+        if (currentRoom == null) {
+            error("记录必须位于 room 记录之后");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean requireNpc() {
+        if (currentNpc == null) {
+            error("记录必须位于 npc 记录之后");
+            return false;
+        }
+        return true;
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value, String what) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            error("未知的" + what + ": " + value);
+            return null;
+        }
+    }
+
+    private Integer parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            error("无效的整数: " + value);
+            return null;
+        }
+    }
+
+    private Double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            error("无效的数值: " + value);
+            return null;
+        }
+    }
+
+    private void error(String message) {
+        errors.add("第" + lineNumber + "行: " + message);
+    }
+
+    private static final class RoomSpec {
+        private final int id;
+        private final String name;
+        private final String description;
+        private final List<Item> items = new ArrayList<>(2);
+        private NpcTemplate npc;
+        // 已定义的出口方向（按 Direction 序号的位）
+        private int exitMask;
+
+        private RoomSpec(int id, String name, String description) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+        }
+    }
+
+    private static final class NpcSpec {
+        private final String name;
+        private final int hp;
+        private final int atk;
+        private final boolean hostile;
+        private final String profession;
+        private final String personality;
+        private final List<String> dialogue = new ArrayList<>(4);
+        // 任务ID到任务对话
+        private final Map<String, String> tasks = new LinkedHashMap<>(2);
+
+        private NpcSpec(String name, int hp, int atk, boolean hostile, String profession, String personality) {
+            this.name = name;
+            this.hp = hp;
+            this.atk = atk;
+            this.hostile = hostile;
+            this.profession = profession;
+            this.personality = personality;
+        }
+    }
+
+    /**
+     * 按UTF-8逐行读取文件，同时记录每行在文件中的字节位置
+     */
+    private static final class Utf8LineReader implements Closeable {
+        private final InputStream in;
+        private byte[] buffer = new byte[1 << 16];
+        private int position;
+        private int limit;
+        private long bufferOffset; // buffer[0] 在文件中的位置
+        private long lineOffset;
+
+        private Utf8LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return 下一行（不含换行符），读完时返回null
+         */
+        String readLine() throws IOException {
+            int scanned = 0;
+            while (true) {
+                for (int i = position + scanned; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        return take(i, i + 1);
+                    }
+                }
+                scanned = limit - position;
+                if (!fill()) {
+                    if (position == limit) {
+                        lineOffset = bufferOffset + limit;
+                        return null;
+                    }
+                    return take(limit, limit);
+                }
+            }
+        }
+
+        /**
+         * 最近读取的一行的起始位置；读完后为文件长度
+         */
+        long getLineOffset() {
+            return lineOffset;
+        }
+
+        private String take(int end, int next) {
+            lineOffset = bufferOffset + position;
+            int start = position;
+            position = next;
+            if (end > start && buffer[end - 1] == '\r') {
+                end--;
+            }
+            return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * 把未处理的数据移到缓冲区开头并继续读取
+         * @return 是否读到了新数据
+         */
+        private boolean fill() throws IOException {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                bufferOffset += position;
+                limit -= position;
+                position = 0;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int n = in.read(buffer, limit, buffer.length - limit);
+            if (n <= 0) {
+                return false;
+            }
+            limit += n;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.mud.game.system;
+
+import com.mud.game.entity.Direction;
+import com.mud.game.entity.Room;
+import com.mud.game.entity.RoomTemplate;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * 加载完成的世界模板（不可变，可被多个世界实例共享）
+ * 房间按定义顺序编号为 0..n-1，出口保存在一个整数邻接表中，
+ * 移动和寻路只需要数组下标运算，不需要按名称查找房间。
+ *
+ * 房间按区域分页保存。没有区域来源时全部房间模板常驻内存；
+ * 有区域来源时常驻的只有房间名称和出口，房间模板按区域在用到时重新读取，
+ * 并只缓存最近使用的 CACHED_AREAS 个区域，其余的随时可以丢弃。
+ */
+public class WorldTemplate {
+    /** 邻接表中每个房间占用的槽位数 */
+    public static final int DIRECTION_COUNT = Direction.values().length;
+    /** 加载时保留房间模板的区域数 */
+    static final int RETAINED_AREAS = 16;
+    /** 区域来源可用时缓存房间模板的区域数 */
+    static final int CACHED_AREAS = 256;
+
+    /**
+     * 重新读取单个区域内容的方式
+     */
+    public interface AreaSource {
+        /**
+         * @return 该区域的房间记录（与加载时读到的内容一致）
+         */
+        Reader openArea(int area) throws IOException;
+    }
+
+    private final String source;
+    private final RoomNameIndex names;
+    private final int[] exits;
+    private final String startRoomName;
+    private final int[] areaStarts;
+    private final String[] areaNames;
+    private final AreaSource areaSource;
+    private final long fingerprint;
+    // 没有区域来源时的全部房间模板，按区域编号索引
+    private final RoomTemplate[][] pinnedPages;
+    // 有区域来源时最近使用的区域的房间模板
+    private final Map<Integer, RoomTemplate[]> cachedPages;
+    private volatile PathFinder pathFinder;
+
+    /**
+     * @param exits 出口邻接表，下标为 房间编号 * DIRECTION_COUNT + 方向序号，没有出口为 Room.NO_ID
+     * @param areaStarts 每个区域的首个房间编号（升序）
+     * @param pages 加载时保留的区域房间模板，未保留的为null
+     * @param areaSource 重新读取区域的方式，为null时 pages 必须包含全部区域
+     */
+    WorldTemplate(String source, RoomNameIndex names, int[] exits, String startRoomName,
+                  int[] areaStarts, String[] areaNames, RoomTemplate[][] pages, AreaSource areaSource) {
+        this.source = source;
+        this.names = names;
+        this.exits = exits;
+        this.startRoomName = startRoomName;
+        this.areaStarts = areaStarts;
+        this.areaNames = areaNames;
+        this.areaSource = areaSource;
+        this.fingerprint = fingerprint(names);
+        if (areaSource == null) {
+            this.pinnedPages = pages;
+            this.cachedPages = null;
+        } else {
+            this.pinnedPages = null;
+            this.cachedPages = new LinkedHashMap<Integer, RoomTemplate[]>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, RoomTemplate[]> eldest) {
+                    return size() > CACHED_AREAS;
+                }
+            };
+            for (int area = 0; area < pages.length; area++) {
+                if (pages[area] != null) {
+                    cachedPages.put(area, pages[area]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 世界文件的来源（资源名或文件路径）
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public int getRoomCount() {
+        return names.size();
+    }
+
+    /**
+     * 世界的指纹：房间数量和每个编号上的房间名称都相同的世界指纹相同
+     * 房间编号按世界文件中的顺序分配，世界文件增删或调整房间后编号会移动，
+     * 保存房间编号的数据（如玩家的到访记录）用它判断编号是否仍然有效。不会为0
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public RoomTemplate getRoom(String name) {
+        int id = names.get(name);
+        return id != Room.NO_ID ? getRoom(id) : null;
+    }
+
+    /**
+     * 房间模板；所在区域不在内存中时从区域来源重新读取
+     * @throws UncheckedIOException 区域来源读取失败
+     */
+    public RoomTemplate getRoom(int id) {
+        int area = getArea(id);
+        return getAreaRooms(area)[id - areaStarts[area]];
+    }
+
+    /**
+     * 房间名称（不需要加载房间模板）
+     */
+    public String getRoomName(int id) {
+        return names.name(id);
+    }
+
+    /**
+     * 按名称查找房间编号，不存在时返回 Room.NO_ID
+     */
+    public int getRoomId(String name) {
+        return names.get(name);
+    }
+
+    /**
+     * 房间某个方向的出口指向的房间编号，没有出口时返回 Room.NO_ID
+     */
+    public int getExit(int roomId, Direction direction) {
+        return exits[roomId * DIRECTION_COUNT + direction.ordinal()];
+    }
+
+    /**
+     * 房间第 directionIndex 个方向（Direction 序号）的出口，供寻路等按序号遍历的代码使用
+     */
+    public int getExit(int roomId, int directionIndex) {
+        return exits[roomId * DIRECTION_COUNT + directionIndex];
+    }
+
+    public String getStartRoomName() {
+        return startRoomName;
+    }
+
+    public int getStartRoomId() {
+        return getRoomId(startRoomName);
+    }
+
+    public int getAreaCount() {
+        return areaStarts.length;
+    }
+
+    /**
+     * 房间所在区域的编号
+     */
+    public int getArea(int roomId) {
+        int area = Arrays.binarySearch(areaStarts, roomId);
+        return area >= 0 ? area : -area - 2;
+    }
+
+    public int getAreaStart(int area) {
+        return areaStarts[area];
+    }
+
+    public int getAreaSize(int area) {
+        int end = area + 1 < areaStarts.length ? areaStarts[area + 1] : getRoomCount();
+        return end - areaStarts[area];
+    }
+
+    public String getAreaName(int area) {
+        return areaNames[area];
+    }
+
+    /**
+     * 房间模板是否按区域分页读取（否则全部常驻内存）
+     */
+    public boolean isPaged() {
+        return areaSource != null;
+    }
+
+    /**
+     * 区域内按编号排列的房间模板
+     */
+    private RoomTemplate[] getAreaRooms(int area) {
+        if (pinnedPages != null) {
+            return pinnedPages[area];
+        }
+        synchronized (cachedPages) {
+            RoomTemplate[] page = cachedPages.get(area);
+            if (page == null) {
+                try (Reader reader = areaSource.openArea(area)) {
+                    page = WorldLoader.loadArea(this, area, reader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                cachedPages.put(area, page);
+            }
+            return page;
+        }
+    }
+
+    private static long fingerprint(RoomNameIndex names) {
+        long hash = 0xCBF29CE484222325L ^ names.size();
+        for (int id = 0; id < names.size(); id++) {
+            hash = (hash ^ names.name(id).hashCode()) * 0x100000001B3L;
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    /**
+     * 本世界的寻路表（第一次使用时创建）
+     */
+    public PathFinder getPathFinder() {
+        PathFinder finder = pathFinder;
+        if (finder == null) {
+            synchronized (this) {
+                finder = pathFinder;
+                if (finder == null) {
+                    finder = new PathFinder(this);
+                    pathFinder = finder;
+                }
+            }
+        }
+        return finder;
+    }
+}
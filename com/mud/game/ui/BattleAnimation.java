@@ -1,11 +1,12 @@
 package com.mud.game.ui;
 
 import java.util.*;
+import com.mud.game.system.PacingTimeline;
 import com.mud.game.system.RandomUtil;
 
 /**
  * 战斗动画和特效显示系统
- * 提供战斗中的各种视觉效果和动画
+ * 提供战斗中的各种视觉效果和动画，帧之间的间隔由 {@link PacingTimeline} 排定
  */
 public class BattleAnimation {
     private static final Map<String, String[]> ANIMATIONS = new HashMap<>();
@@ -75,11 +76,7 @@ public class BattleAnimation {
         String[] frames = ANIMATIONS.get("attack");
         for (int i = 0; i < frames.length; i++) {
             System.out.print("\r" + frames[i] + " " + attacker + " → " + target);
-            try {
-                Thread.sleep(300);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(300);
         }
         System.out.println();
     }
@@ -97,11 +94,7 @@ public class BattleAnimation {
         String[] frames = ANIMATIONS.get("magic");
         for (int i = 0; i < frames.length; i++) {
             System.out.print("\r" + color + frames[i] + " " + caster + " → " + target + reset);
-            try {
-                Thread.sleep(400);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(400);
         }
         System.out.println();
     }
@@ -119,11 +112,7 @@ public class BattleAnimation {
         String[] frames = ANIMATIONS.get("heal");
         for (int i = 0; i < frames.length; i++) {
             System.out.print("\r" + color + frames[i] + " " + target + " +" + amount + " HP" + reset);
-            try {
-                Thread.sleep(350);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(350);
         }
         System.out.println();
     }
@@ -138,11 +127,7 @@ public class BattleAnimation {
         String[] frames = ANIMATIONS.get("critical");
         for (int i = 0; i < frames.length; i++) {
             System.out.print("\r" + frames[i] + " 暴击伤害！");
-            try {
-                Thread.sleep(200);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(200);
         }
         System.out.println();
     }
@@ -157,11 +142,7 @@ public class BattleAnimation {
         String[] frames = ANIMATIONS.get("dodge");
         for (int i = 0; i < frames.length; i++) {
             System.out.print("\r" + frames[i] + " 闪避成功！");
-            try {
-                Thread.sleep(250);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(250);
         }
         System.out.println();
     }
@@ -181,11 +162,7 @@ public class BattleAnimation {
             
             for (int i = 0; i < frames.length; i++) {
                 System.out.print("\r" + color + frames[i] + " 中毒伤害！" + reset);
-                try {
-                    Thread.sleep(400);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+                PacingTimeline.pause(400);
             }
         } else {
             String symbol = isPositive ? "✨" : "💀";
@@ -195,11 +172,7 @@ public class BattleAnimation {
             System.out.println(message);
             for (int i = 0; i < 4; i++) {
                 System.out.print("\r" + symbol.repeat(i + 1) + " " + effectType);
-                try {
-                    Thread.sleep(300);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+                PacingTimeline.pause(300);
             }
         }
         System.out.println();
@@ -247,11 +220,7 @@ public class BattleAnimation {
         
         for (int i = 0; i < 3; i++) {
             System.out.print("\r准备战斗" + ".".repeat(i + 1));
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(500);
         }
         System.out.println("\n" + "=".repeat(60));
     }
@@ -267,11 +236,7 @@ public class BattleAnimation {
         for (int i = 0; i < 10; i++) {
             String frame = RandomUtil.randomElement(celebration);
             System.out.print("\r" + frame.repeat(i + 1) + " 胜利！" + frame.repeat(i + 1));
-            try {
-                Thread.sleep(200);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(200);
         }
         System.out.println("\n" + "=".repeat(60));
     }
@@ -285,11 +250,7 @@ public class BattleAnimation {
         
         for (int i = 0; i < 5; i++) {
             System.out.print("\r" + "💀".repeat(i + 1) + " 战败... " + "💀".repeat(i + 1));
-            try {
-                Thread.sleep(400);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            PacingTimeline.pause(400);
         }
         System.out.println("\n" + "=".repeat(60));
     }
@@ -317,13 +278,9 @@ public class BattleAnimation {
     }
     
     /**
-     * 暂停动画
+     * 暂停动画（推迟之后的输出，不阻塞调用线程）
      */
     public static void pause(int milliseconds) {
-        try {
-            Thread.sleep(milliseconds);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        PacingTimeline.pause(milliseconds);
     }
 }
\ No newline at end of file
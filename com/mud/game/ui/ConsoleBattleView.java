@@ -0,0 +1,205 @@
+package com.mud.game.ui;
+
+import com.mud.game.entity.Item;
+import com.mud.game.entity.StatusEffect;
+import com.mud.game.system.BattleEventSink;
+import com.mud.game.system.BattleStrategy;
+import com.mud.game.system.Combatant;
+import com.mud.game.system.GameConsole;
+import com.mud.game.system.PacingTimeline;
+import java.util.List;
+
+/**
+ * 控制台战斗界面
+ * 交互式战斗的适配器：从控制台读取玩家的选择，并用战斗动画显示战斗核心报告的过程
+ */
+public class ConsoleBattleView implements BattleStrategy, BattleEventSink {
+    private static final long TURN_DELAY_MS = 1000;
+
+    @Override
+    public void battleStarted(List<Combatant> enemies) {
+        // 播放战斗开始动画
+        BattleAnimation.playBattleStartAnimation(
+            enemies.stream().map(Combatant::getName).toList()
+        );
+    }
+
+    @Override
+    public void turnStarted(int turn, Combatant player, List<Combatant> enemies) {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("🎮 第 " + turn + " 回合");
+        System.out.println("=".repeat(60));
+
+        displayEnhancedBattleStatus(player, enemies);
+    }
+
+    @Override
+    public void attackLanded(Combatant attacker, Combatant target, int damage, boolean critical) {
+        BattleAnimation.playAttackAnimation(attacker.getName(), target.getName());
+        BattleAnimation.showDamageNumber(target.getName(), damage, critical);
+
+        if (critical) {
+            BattleAnimation.playCriticalAnimation(attacker.getName(), target.getName());
+        }
+    }
+
+    @Override
+    public void attackDodged(Combatant attacker, Combatant target) {
+        BattleAnimation.playDodgeAnimation(attacker.getName(), target.getName());
+    }
+
+    @Override
+    public void message(String text) {
+        System.out.println(text);
+    }
+
+    @Override
+    public void turnEnded(int turn) {
+        PacingTimeline.pause(TURN_DELAY_MS);
+    }
+
+    @Override
+    public Action chooseAction(Combatant player, List<Combatant> aliveEnemies) {
+        while (true) {
+            System.out.println("\n🎯 你的回合，请选择行动：");
+            System.out.println("1. ⚔️ 攻击");
+            System.out.println("2. 🛡️ 防御");
+            System.out.println("3. 💊 使用物品");
+            System.out.println("4. 🏃 逃跑");
+            System.out.println("5. 🎯 选择目标");
+
+            switch (getPlayerChoice(1, 5)) {
+                case 1:
+                    return Action.ATTACK;
+                case 2:
+                    return Action.DEFEND;
+                case 3:
+                    return Action.USE_ITEM;
+                case 4:
+                    return Action.ESCAPE;
+                default:
+                    selectTarget(aliveEnemies);
+                    // 重新选择行动
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public Combatant chooseTarget(Combatant player, List<Combatant> aliveEnemies) {
+        displayAliveEnemies(aliveEnemies);
+        int targetIndex = getPlayerChoice(1, aliveEnemies.size()) - 1;
+        return targetIndex < aliveEnemies.size() ? aliveEnemies.get(targetIndex) : null;
+    }
+
+    @Override
+    public Item chooseItem(Combatant player, List<Item> items) {
+        for (int i = 0; i < items.size(); i++) {
+            System.out.println((i + 1) + ". " + items.get(i).getName() + " - " + items.get(i).getDescription());
+        }
+        System.out.println((items.size() + 1) + ". 返回");
+
+        int choice = getPlayerChoice(1, items.size() + 1);
+        return choice == items.size() + 1 ? null : items.get(choice - 1);
+    }
+
+    // 选择目标
+    private void selectTarget(List<Combatant> aliveEnemies) {
+        System.out.println("\n🎯 选择要集中攻击的目标：");
+        displayAliveEnemies(aliveEnemies);
+
+        int targetIndex = getPlayerChoice(1, aliveEnemies.size()) - 1;
+        if (targetIndex < aliveEnemies.size()) {
+            System.out.println("🎯 你将集中攻击" + aliveEnemies.get(targetIndex).getName() + "！");
+            // 这里可以添加集中攻击的buff效果
+        }
+    }
+
+    // 显示增强战斗状态
+    private void displayEnhancedBattleStatus(Combatant player, List<Combatant> enemies) {
+        System.out.println("\n╔══════════════════════════════════════════════════════════════╗");
+        System.out.printf("║ 👤 玩家: %-20s 等级: %-3d 元素: %-3s   ║%n",
+                         player.getName(), player.getLevel(), player.getElement());
+
+        // 显示状态效果
+        if (!player.getStatusEffects().isEmpty()) {
+            System.out.print("║ 状态效果: ");
+            for (StatusEffect effect : player.getStatusEffects()) {
+                System.out.print(effect.getDescription() + " ");
+            }
+            System.out.println("║");
+        }
+
+        String playerHpBar = createHpBar(player.getHp(), player.getMaxHp(), 25);
+        System.out.printf("║ HP: [%s] %3d/%3d    ATK: %-3d  DEF: %-3d  闪避: %3.0f%% ║%n",
+                         playerHpBar, player.getHp(), player.getMaxHp(),
+                         player.getAtk() + player.getTempAtk(), player.getDef() + player.getTempDef(),
+                         player.getDodgeRate() * 100);
+
+        System.out.println("╠══════════════════════════════════════════════════════════════╣");
+
+        // 显示敌人状态
+        System.out.println("║ 👹 敌人状态:                                                ║");
+        for (int i = 0; i < enemies.size(); i++) {
+            Combatant enemy = enemies.get(i);
+            if (enemy.isAlive()) {
+                String enemyHpBar = createHpBar(enemy.getHp(), enemy.getMaxHp(), 20);
+                System.out.printf("║ %d. %-15s HP: [%s] %3d/%3d 元素: %-3s ║%n",
+                                 i + 1, enemy.getName(), enemyHpBar, enemy.getHp(), enemy.getMaxHp(),
+                                 enemy.getElement());
+
+                // 显示敌人状态效果
+                if (!enemy.getStatusEffects().isEmpty()) {
+                    System.out.print("║    状态: ");
+                    for (StatusEffect effect : enemy.getStatusEffects()) {
+                        System.out.print(effect.getDescription() + " ");
+                    }
+                    System.out.println("║");
+                }
+            }
+        }
+
+        System.out.println("╚══════════════════════════════════════════════════════════════╝");
+    }
+
+    // 创建血条
+    private String createHpBar(int current, int max, int length) {
+        int filled = (int)((double)current / max * length);
+        StringBuilder bar = new StringBuilder();
+
+        for (int i = 0; i < length; i++) {
+            if (i < filled) {
+                bar.append("█");
+            } else {
+                bar.append("░");
+            }
+        }
+
+        return bar.toString();
+    }
+
+    // 获取玩家选择
+    private int getPlayerChoice(int min, int max) {
+        while (true) {
+            System.out.print("请选择 (" + min + "-" + max + "): ");
+            try {
+                int choice = Integer.parseInt(GameConsole.readLine());
+                if (choice >= min && choice <= max) {
+                    return choice;
+                }
+                System.out.println("❌ 无效选择，请重新输入！");
+            } catch (NumberFormatException e) {
+                System.out.println("❌ 请输入数字！");
+            }
+        }
+    }
+
+    // 显示存活的敌人
+    private void displayAliveEnemies(List<Combatant> aliveEnemies) {
+        int index = 1;
+        for (Combatant enemy : aliveEnemies) {
+            System.out.println(index + ". " + enemy.getName() + " (HP: " + enemy.getHp() + "/" + enemy.getMaxHp() + ")");
+            index++;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.mud.game.ui;
 
 import com.mud.game.entity.*;
 import com.mud.game.system.EnhancedBattleEngine;
+import com.mud.game.system.GameConsole;
 import com.mud.game.system.RandomUtil;
 import java.util.*;
 
@@ -10,7 +11,6 @@ import java.util.*;
  * 集成动画效果和视觉特效
  */
 public class EnhancedBattleUI {
-    private static final Scanner scanner = new Scanner(System.in);
     private static final String RESET = "\u001B[0m";
     private static final String RED = "\u001B[31m";
     private static final String GREEN = "\u001B[32m";
@@ -173,7 +173,7 @@ public class EnhancedBattleUI {
         System.out.print("选择行动：");
         
         try {
-            int choice = Integer.parseInt(scanner.nextLine());
+            int choice = Integer.parseInt(GameConsole.readLine());
             
             switch (choice) {
                 case 1:
@@ -241,7 +241,7 @@ public class EnhancedBattleUI {
         System.out.print("选择魔法类型：");
         
         try {
-            int magicChoice = Integer.parseInt(scanner.nextLine());
+            int magicChoice = Integer.parseInt(GameConsole.readLine());
             String element = switch (magicChoice) {
                 case 1 -> "fire";
                 case 2 -> "ice";
@@ -293,7 +293,7 @@ public class EnhancedBattleUI {
         System.out.print("选择目标编号：");
         
         try {
-            int targetChoice = Integer.parseInt(scanner.nextLine()) - 1;
+            int targetChoice = Integer.parseInt(GameConsole.readLine()) - 1;
             if (targetChoice >= 0 && targetChoice < aliveEnemies.size()) {
                 return aliveEnemies.get(targetChoice);
             }
@@ -325,7 +325,7 @@ public class EnhancedBattleUI {
         System.out.print("选择要使用的物品：");
         
         try {
-            int itemChoice = Integer.parseInt(scanner.nextLine());
+            int itemChoice = Integer.parseInt(GameConsole.readLine());
             if (itemChoice == 0) return;
             
             if (itemChoice > 0 && itemChoice <= itemList.size()) {
@@ -358,7 +358,7 @@ public class EnhancedBattleUI {
         System.out.println("暴击伤害：" + (player.getCritDamage() * 100) + "%");
         
         System.out.print("\n按回车键继续...");
-        scanner.nextLine();
+        GameConsole.readLine();
     }
     
     /**
@@ -427,35 +427,20 @@ public class EnhancedBattleUI {
      */
     private void processEndOfTurnEffects() {
         // 处理玩家状态效果
-        List<StatusEffect> playerEffects = new ArrayList<>(player.getStatusEffects());
-        for (StatusEffect effect : playerEffects) {
-            if (effect.isActive()) {
-                effect.endTurn();
-                
-                if (effect.getStatus().getName().contains("毒")) {
-                    BattleAnimation.playStatusEffectAnimation(player.getName(), "poison", false);
-                }
-                
-                if (!effect.isActive()) {
-                    player.removeStatusEffect(effect);
-                    System.out.println(YELLOW + player.getName() + " 的 " + effect.getStatus().getName() + " 效果结束了" + RESET);
-                }
-            }
+        if (player.hasStatus(BattleStatus.POISON)) {
+            BattleAnimation.playStatusEffectAnimation(player.getName(), "poison", false);
+        }
+        for (int expired = player.getEffectTable().tick(); expired != 0; expired &= expired - 1) {
+            BattleStatus status = StatusEffectTable.lowestStatus(expired);
+            System.out.println(YELLOW + player.getName() + " 的 " + status.getName() + " 效果结束了" + RESET);
         }
         
         // 处理敌人状态效果
         for (NPC enemy : enemies) {
             if (enemy.isAlive()) {
-                List<StatusEffect> enemyEffects = new ArrayList<>(enemy.getStatusEffects());
-                for (StatusEffect effect : enemyEffects) {
-                    if (effect.isActive()) {
-                        effect.endTurn();
-                        
-                        if (!effect.isActive()) {
-                            enemy.removeStatusEffect(effect);
-                            System.out.println(YELLOW + enemy.getName() + " 的 " + effect.getStatus().getName() + " 效果结束了" + RESET);
-                        }
-                    }
+                for (int expired = enemy.getEffectTable().tick(); expired != 0; expired &= expired - 1) {
+                    BattleStatus status = StatusEffectTable.lowestStatus(expired);
+                    System.out.println(YELLOW + enemy.getName() + " 的 " + status.getName() + " 效果结束了" + RESET);
                 }
             }
         }
@@ -488,6 +473,6 @@ public class EnhancedBattleUI {
         player.setTempDef(0);
         
         System.out.print("\n按回车键继续...");
-        scanner.nextLine();
+        GameConsole.readLine();
     }
 }
\ No newline at end of file